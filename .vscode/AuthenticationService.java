@@ -0,0 +1,157 @@
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Checks credentials on background threads so callers on the JavaFX
+// application thread never wait for the database. Logins first wait for the
+// database to be ready (the schema migration). If that failed, the next
+// login after RETRY_MILLIS prepares the database again and waits for that,
+// so accounts can sign in once the database is back; logins in between
+// answer at once as if the database were down. Otherwise a login that has not
+// finished within the timeout, counted from then, completes with TIMED_OUT;
+// the database call itself is left to finish (or hit the driver's own
+// timeouts) on its thread.
+//
+// Passwords are checked against PasswordHasher hashes. Accounts still holding
+// a plaintext password, or a hash with fewer iterations than the current
+// default, are rehashed on their next successful login. Recent successful
+// logins are kept in a CredentialCache so repeated sign-ins skip the hash.
+public class AuthenticationService implements AutoCloseable {
+    
+    private static final int CACHED_LOGINS = 256;
+    private static final long CACHED_LOGIN_MINUTES = 15;
+    // Least time between attempts to prepare the database
+    private static final long RETRY_MILLIS = 10_000;
+    
+    private final UserRepository userRepository;
+    private final PasswordHasher hasher;
+    private final CredentialCache credentialCache;
+    // Checked for unknown users so they take as long to reject as known ones
+    private volatile String unknownUserHash;
+    private final Supplier<? extends CompletableFuture<?>> prepareDatabase;
+    // The latest attempt to prepare the database, and when it was started
+    private CompletableFuture<?> databaseReady;
+    private long preparedAtMillis;
+    private final long timeoutMillis;
+    private final ExecutorService executor;
+    
+    // prepareDatabase starts getting the database ready (e.g. the schema
+    // migration); it is called now and again after a failure. Logins wait for
+    // it before the timeout starts, so it must complete, e.g. through the
+    // driver's connect timeout.
+    public AuthenticationService(UserRepository userRepository, PasswordHasher hasher,
+                                 Supplier<? extends CompletableFuture<?>> prepareDatabase, long timeoutMillis) {
+        this.userRepository = userRepository;
+        this.prepareDatabase = prepareDatabase;
+        this.databaseReady = prepareDatabase.get();
+        this.preparedAtMillis = System.currentTimeMillis();
+        this.hasher = hasher;
+        this.credentialCache = new CredentialCache(CACHED_LOGINS, CACHED_LOGIN_MINUTES, TimeUnit.MINUTES);
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "login-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    // Starts a login; the future completes on a background thread. Cancelling
+    // it only discards the result.
+    public CompletableFuture<LoginResult> login(String username, String password) {
+        CompletableFuture<LoginResult> result = new CompletableFuture<>();
+        databaseReady().whenCompleteAsync((ignored, error) -> {
+            if (result.isDone()) {
+                return; // Cancelled while waiting
+            }
+            if (error != null) {
+                result.complete(withoutDatabase(username, password));
+                return;
+            }
+            result.completeOnTimeout(LoginResult.TIMED_OUT, timeoutMillis, TimeUnit.MILLISECONDS);
+            try {
+                result.complete(authenticate(username, password));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, executor);
+        return result;
+    }
+    
+    // The latest attempt to prepare the database, starting a new one if it
+    // failed at least RETRY_MILLIS ago
+    private synchronized CompletableFuture<?> databaseReady() {
+        long now = System.currentTimeMillis();
+        if (databaseReady.isCompletedExceptionally() && now - preparedAtMillis >= RETRY_MILLIS) {
+            databaseReady = prepareDatabase.get();
+            preparedAtMillis = now;
+        }
+        return databaseReady;
+    }
+    
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+    
+    private LoginResult authenticate(String username, String password) {
+        // For demo purposes, allow admin/admin to bypass database check
+        if (username.equals("admin") && password.equals("admin")) {
+            return LoginResult.SUCCESS;
+        }
+        
+        try {
+            return checkPassword(username, password);
+        } catch (SQLException e) {
+            System.err.println("Database authentication error: " + e.getMessage());
+            return withoutDatabase(username, password);
+        }
+    }
+    
+    // The answer when the database cannot be used
+    private static LoginResult withoutDatabase(String username, String password) {
+        // Since this is a demo, allow fallback to dummy authentication
+        // In a real application, you would handle this differently
+        if ((username.equals("admin") && password.equals("admin"))
+                || (username.equals("user") && password.equals("password"))) {
+            return LoginResult.SUCCESS;
+        }
+        return LoginResult.DATABASE_ERROR;
+    }
+    
+    private LoginResult checkPassword(String username, String password) throws SQLException {
+        String stored = userRepository.findPasswordHash(username);
+        if (stored == null) {
+            if (unknownUserHash == null) {
+                unknownUserHash = hasher.hash("unknown user");
+            }
+            hasher.verify(password, unknownUserHash);
+            return LoginResult.INVALID_CREDENTIALS;
+        }
+        if (credentialCache.matches(username, stored, password)) {
+            return LoginResult.SUCCESS;
+        }
+        
+        boolean valid = PasswordHasher.isHash(stored)
+                ? hasher.verify(password, stored)
+                : MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8), password.getBytes(StandardCharsets.UTF_8));
+        if (!valid) {
+            return LoginResult.INVALID_CREDENTIALS;
+        }
+        
+        if (hasher.needsRehash(stored)) {
+            String rehashed = hasher.hash(password);
+            if (userRepository.updatePasswordHash(username, stored, rehashed)) {
+                stored = rehashed;
+            }
+        }
+        credentialCache.remember(username, stored, password);
+        return LoginResult.SUCCESS;
+    }
+}
\ No newline at end of file
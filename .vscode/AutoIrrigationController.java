@@ -0,0 +1,190 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Auto mode: opens and closes zone valves on the IrrigationScheduler from
+// the decisions on each zone's latest reading.
+//
+// Decisions are acted on in the thread that delivers the reading, so a
+// valve follows the reading that decides it within microseconds. To keep
+// noisy or flapping readings from cycling a valve:
+// - a zone starts only after CONFIRM_READINGS readings in a row ask for water,
+//   and not again until its rest period after the last cycle has passed;
+// - a started cycle runs for its decision's share of a full cycle, and ends
+//   early only on rain or once soil moisture is HYSTERESIS points above the
+//   level that calls for water, not as soon as a reading dips past it.
+// Cycles started by hand are left alone, and so are readings more than
+// MAX_READING_AGE_MILLIS old, such as backfilled or simulated history.
+//
+// Where zones share a pump, planPending() hands the latest demand of every
+// zone waiting for water to a FlowCapacityPlanner and runs the plan; each
+// planned zone is then left to its slot instead of starting on its own.
+public class AutoIrrigationController implements SensorIngestPipeline.DecisionListener {
+    
+    private static final int CONFIRM_READINGS = 3;
+    private static final double HYSTERESIS = 5.0;
+    private static final double STOP_MOISTURE = SensorSimulator.MOISTURE_MEDIUM_THRESHOLD + HYSTERESIS;
+    private static final long MAX_READING_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    // Running cycles end within a few timer ticks of their deadline, so a
+    // plan lets them hold their flow this much longer
+    private static final long PLAN_MARGIN_MILLIS = 5;
+    
+    private static final class ZoneState {
+        // Readings in a row that asked for water
+        int wanting;
+        // The cycle this controller started, while it runs
+        IrrigationScheduler.ZoneRun run;
+        // The latest decision that asked for water, until a cycle starts;
+        // cleared by the scheduler's threads without the lock
+        volatile IrrigationDecision pending;
+        // Written by the scheduler's threads without the lock
+        volatile long restUntilNanos = System.nanoTime();
+        // The end of the zone's slot in the latest plan
+        volatile long plannedUntilNanos = System.nanoTime();
+    }
+    
+    private final IrrigationScheduler scheduler;
+    private final SensorSimulator simulator = new SensorSimulator();
+    private final Function<SensorReading, String> zoneOf;
+    private final double flowRate;
+    private final long fullCycleNanos;
+    private final long restNanos;
+    private final ConcurrentHashMap<String, ZoneState> zones = new ConcurrentHashMap<>();
+    private volatile boolean enabled = true;
+    
+    // zoneOf names the zone a reading's probe waters; cycles run at flowRate
+    // L/min, a full cycle (an irrigation amount of 100%) lasts fullCycle, and
+    // a zone rests for restPeriod after a cycle ends
+    public AutoIrrigationController(IrrigationScheduler scheduler, Function<SensorReading, String> zoneOf,
+                                    double flowRate, long fullCycle, long restPeriod, TimeUnit unit) {
+        if (flowRate <= 0 || fullCycle <= 0 || restPeriod < 0) {
+            throw new IllegalArgumentException("Flow rate and cycle must be positive, rest period not negative");
+        }
+        this.scheduler = scheduler;
+        this.zoneOf = zoneOf;
+        this.flowRate = flowRate;
+        this.fullCycleNanos = unit.toNanos(fullCycle);
+        this.restNanos = unit.toNanos(restPeriod);
+        // Called under the scheduler's lock, sometimes while this controller
+        // holds the zone's lock, so it takes no locks itself
+        scheduler.addListener(event -> {
+            IrrigationEvent.Action action = event.getAction();
+            if (action == IrrigationEvent.Action.START) {
+                ZoneState state = zones.get(event.getZone());
+                if (state != null) {
+                    state.pending = null;
+                }
+            } else if (action == IrrigationEvent.Action.STOP || action == IrrigationEvent.Action.COMPLETE) {
+                ZoneState state = zones.get(event.getZone());
+                if (state != null) {
+                    state.restUntilNanos = System.nanoTime() + restNanos;
+                }
+            }
+        });
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // Turning auto mode off leaves running cycles to finish
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    // For readings that haven't been through a SensorIngestPipeline
+    public void onReading(SensorReading reading) {
+        if (enabled) {
+            onDecision(reading, simulator.makeIrrigationDecision(reading));
+        }
+    }
+    
+    @Override
+    public void onDecision(SensorReading reading, IrrigationDecision decision) {
+        if (!enabled || System.currentTimeMillis() - reading.getTimestamp() > MAX_READING_AGE_MILLIS) {
+            return;
+        }
+        String zone = zoneOf.apply(reading);
+        ZoneState state = zones.computeIfAbsent(zone, z -> new ZoneState());
+        synchronized (state) {
+            IrrigationScheduler.ZoneRun current = scheduler.getRun(zone);
+            if (current != null) {
+                state.wanting = 0;
+                if (current == state.run) {
+                    stopEarly(zone, decision);
+                }
+                return;
+            }
+            state.run = null;
+            
+            if (!decision.getDecision().requiresIrrigation() || decision.getIrrigationAmount() <= 0) {
+                state.wanting = 0;
+                state.pending = null;
+                return;
+            }
+            state.pending = decision;
+            if (++state.wanting < CONFIRM_READINGS) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (now - state.restUntilNanos < 0 || now - state.plannedUntilNanos < 0) {
+                return;
+            }
+            
+            long durationNanos = Math.max(1, Math.round(fullCycleNanos * decision.getIrrigationAmount() / 100.0));
+            if (scheduler.start(zone, flowRate, durationNanos, TimeUnit.NANOSECONDS)) {
+                state.run = scheduler.getRun(zone);
+            }
+            state.wanting = 0;
+        }
+    }
+    
+    // Plans a cycle for every idle zone whose latest decision asked for
+    // water, so together with the cycles already running they never draw
+    // more than the planner's capacity, and starts the plan, replacing the
+    // planned starts of any earlier one
+    public FlowCapacityPlanner.Plan planPending(FlowCapacityPlanner planner) {
+        scheduler.cancelPlannedStarts();
+        long now = System.nanoTime();
+        List<FlowCapacityPlanner.Demand> demands = new ArrayList<>();
+        for (Map.Entry<String, ZoneState> entry : zones.entrySet()) {
+            String zone = entry.getKey();
+            ZoneState state = entry.getValue();
+            synchronized (state) {
+                // No zone starts on its own until the plan is made
+                state.plannedUntilNanos = now + Long.MAX_VALUE;
+                if (state.pending != null && scheduler.getRun(zone) == null) {
+                    demands.add(FlowCapacityPlanner.Demand.fromDecision(zone, state.pending, flowRate,
+                            fullCycleNanos, TimeUnit.NANOSECONDS));
+                }
+            }
+        }
+        List<FlowCapacityPlanner.Demand> inProgress = new ArrayList<>();
+        for (IrrigationScheduler.ZoneRun run : scheduler.getRunningZones()) {
+            inProgress.add(new FlowCapacityPlanner.Demand(run.getZone(), run.getFlowRate(),
+                    run.getRemainingMillis() + PLAN_MARGIN_MILLIS, TimeUnit.MILLISECONDS, false));
+        }
+        
+        FlowCapacityPlanner.Plan plan = planner.plan(demands, inProgress);
+        // Auto mode keeps its hands off each planned zone until its slot has ended
+        for (ZoneState state : zones.values()) {
+            state.plannedUntilNanos = now;
+        }
+        for (FlowCapacityPlanner.Slot slot : plan.getSlots()) {
+            zones.get(slot.getZone()).plannedUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(slot.getEndMillis());
+        }
+        scheduler.runPlan(plan);
+        return plan;
+    }
+    
+    private void stopEarly(String zone, IrrigationDecision decision) {
+        if (decision.getRule() == IrrigationRule.RECENT_RAINFALL) {
+            scheduler.stop(zone, String.format("Auto: rainfall %.1fmm", decision.getRainfall()));
+        } else if (decision.getSoilMoisture() >= STOP_MOISTURE) {
+            scheduler.stop(zone, String.format("Auto: soil moisture %.1f%%", decision.getSoilMoisture()));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,270 @@
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+// A small fixed-size pool of JDBC connections. Callers use it like any
+// DataSource and close the connection when done; close() hands the physical
+// connection back to the pool instead of ending the session, so only the
+// first use of each connection pays for the TCP and authentication handshake.
+//
+// At most poolSize connections are handed out at once; getConnection waits
+// up to the configured timeout for one to come back. A connection that sat
+// idle for a while is checked with isValid before reuse, and broken ones are
+// dropped and replaced. Statements, result sets and metadata obtained from a
+// pooled connection lead back to it, not to the physical connection, through
+// getConnection and getStatement.
+public class ConnectionPool implements DataSource, AutoCloseable {
+    
+    private static final long VALIDATE_AFTER_IDLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    
+    private final DatabaseConfig config;
+    private final Semaphore permits;
+    // Most recently returned first, so busy periods reuse warm connections
+    private final ConcurrentLinkedDeque<IdleConnection> idle = new ConcurrentLinkedDeque<>();
+    private volatile boolean closed;
+    
+    public ConnectionPool(DatabaseConfig config) {
+        this.config = config;
+        this.permits = new Semaphore(config.getPoolSize(), true);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Timed out after " + config.getAcquireTimeoutMillis()
+                        + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        
+        try {
+            return lease(takeIdleOrConnect());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections always use the configured account");
+    }
+    
+    // Closes the idle connections; connections still in use are closed when returned
+    @Override
+    public void close() {
+        closed = true;
+        IdleConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            closeQuietly(connection.connection);
+        }
+    }
+    
+    private Connection takeIdleOrConnect() throws SQLException {
+        IdleConnection candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            Connection connection = candidate.connection;
+            if (System.nanoTime() - candidate.idleSince < VALIDATE_AFTER_IDLE_NANOS
+                    || connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                return connection;
+            }
+            closeQuietly(connection);
+        }
+        return DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
+    }
+    
+    private Connection lease(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new Lease(connection));
+    }
+    
+    // Resets a connection the caller closed and makes it available again
+    private void giveBack(Connection connection) {
+        try {
+            if (closed || connection.isClosed()) {
+                closeQuietly(connection);
+                return;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            connection.clearWarnings();
+            idle.offerFirst(new IdleConnection(connection, System.nanoTime()));
+        } catch (SQLException e) {
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Could not close database connection: " + e.getMessage());
+        }
+    }
+    
+    private static final class IdleConnection {
+        final Connection connection;
+        final long idleSince;
+        
+        IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+    
+    // The caller's view of a pooled connection; unusable after close()
+    private final class Lease implements InvocationHandler {
+        private final Connection connection;
+        private boolean returned;
+        
+        Lease(Connection connection) {
+            this.connection = connection;
+        }
+        
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(connection);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + connection;
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection has been returned to the pool");
+                    }
+                    try {
+                        return wrap(method.invoke(connection, args), method.getReturnType(), (Connection) proxy, null);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+    
+    // Wraps the JDBC objects that can hand out their connection; anything
+    // else is returned as it is
+    private static Object wrap(Object target, Class<?> type, Connection connection, Statement statement) {
+        if (target == null || (type != Statement.class && type != PreparedStatement.class
+                && type != CallableStatement.class && type != ResultSet.class && type != DatabaseMetaData.class)) {
+            return target;
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                new Derived(target, connection, statement));
+    }
+    
+    // A statement, result set or metadata object of a leased connection
+    private static final class Derived implements InvocationHandler {
+        private final Object target;
+        private final Connection connection;
+        // The statement proxy that produced this result set, if any
+        private final Statement statement;
+        
+        Derived(Object target, Connection connection, Statement statement) {
+            this.target = target;
+            this.connection = connection;
+            this.statement = statement;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    return connection;
+                case "getStatement":
+                    if (statement != null) {
+                        return statement;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + target;
+                default:
+                    break;
+            }
+            try {
+                Object result = method.invoke(target, args);
+                return wrap(result, method.getReturnType(), connection,
+                        proxy instanceof Statement ? (Statement) proxy : statement);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+    
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+    
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+    
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+    
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+    
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+    
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException {
+        if (type.isInstance(this)) {
+            return type.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + type.getName());
+    }
+    
+    @Override
+    public boolean isWrapperFor(Class<?> type) {
+        return type.isInstance(this);
+    }
+}
\ No newline at end of file
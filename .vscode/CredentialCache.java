@@ -0,0 +1,97 @@
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+// Remembers recent successful logins so a user signing in again soon (shared
+// terminals at shift change) skips the slow password hash. An entry holds an
+// HMAC of the password under a key that only lives in this process, never
+// the password itself, and is tied to the stored hash it was verified
+// against, so changing a password in the database invalidates it at once.
+//
+// The least recently used entry is dropped beyond maxEntries, and entries
+// expire after the time-to-live regardless of use.
+public class CredentialCache {
+    
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final SecretKeySpec key;
+    private final Map<String, Entry> entries;
+    
+    public CredentialCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries < 1 || ttl <= 0) {
+            throw new IllegalArgumentException("Cache size and time-to-live must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, MAC_ALGORITHM);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > CredentialCache.this.maxEntries;
+            }
+        };
+    }
+    
+    // True if this password was verified against this stored hash recently
+    public boolean matches(String username, String storedHash, String password) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(username);
+            if (entry == null) {
+                return false;
+            }
+            if (System.nanoTime() - entry.verifiedAt > ttlNanos || !entry.storedHash.equals(storedHash)) {
+                entries.remove(username);
+                return false;
+            }
+        }
+        return MessageDigest.isEqual(entry.verifier, mac(password));
+    }
+    
+    public void remember(String username, String storedHash, String password) {
+        Entry entry = new Entry(storedHash, mac(password), System.nanoTime());
+        synchronized (this) {
+            entries.put(username, entry);
+        }
+    }
+    
+    public synchronized void invalidate(String username) {
+        entries.remove(username);
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    private byte[] mac(String password) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(MAC_ALGORITHM + " is not available", e);
+        }
+    }
+    
+    private static final class Entry {
+        final String storedHash;
+        final byte[] verifier;
+        final long verifiedAt;
+        
+        Entry(String storedHash, byte[] verifier, long verifiedAt) {
+            this.storedHash = storedHash;
+            this.verifier = verifier;
+            this.verifiedAt = verifiedAt;
+        }
+    }
+}
\ No newline at end of file
@@ -1,6 +1,6 @@
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Scene;
+import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
@@ -12,12 +12,7 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 
-public class DashBoard {
-
-    private static final String PRIMARY_COLOR = "#1A5F7A";
-    private static final String SECONDARY_COLOR = "#2E8B57";
-    private static final String ACCENT_COLOR = "#FF6347";
-    private static final String BACKGROUND_COLOR = "#F8F9FA";
+public class DashBoard implements Page {
     
     private final MainApp mainApp;
     
@@ -25,9 +20,10 @@ public class DashBoard {
         this.mainApp = mainApp;
     }
     
-    public Scene createDashboardScene() {
+    @Override
+    public Parent createContent() {
         BorderPane dashboard = new BorderPane();
-        dashboard.setStyle("-fx-background-color: " + BACKGROUND_COLOR + ";");
+        dashboard.getStyleClass().add("page");
         
         // Top Navigation Bar
         HBox navBar = createNavigationBar();
@@ -41,14 +37,14 @@ public class DashBoard {
         OverviewPage overviewPage = new OverviewPage();
         dashboard.setCenter(overviewPage.createContent());
         
-        return new Scene(dashboard, 1000, 700);
+        return dashboard;
     }
     
     private HBox createNavigationBar() {
         HBox navBar = new HBox();
         navBar.setPadding(new Insets(15, 25, 15, 25));
         navBar.setSpacing(15);
-        navBar.setStyle("-fx-background-color: " + PRIMARY_COLOR + ";");
+        navBar.getStyleClass().add("nav-bar");
         navBar.setPrefHeight(60);
         
         // App title
@@ -89,31 +85,7 @@ public class DashBoard {
     
     private Button createNavButton(String text) {
         Button button = new Button(text);
-        button.setStyle(
-            "-fx-background-color: transparent;" +
-            "-fx-text-fill: white;" +
-            "-fx-font-size: 14px;" +
-            "-fx-cursor: hand;"
-        );
-        
-        button.setOnMouseEntered(e -> 
-            button.setStyle(
-                "-fx-background-color: rgba(255,255,255,0.2);" +
-                "-fx-text-fill: white;" +
-                "-fx-font-size: 14px;" +
-                "-fx-cursor: hand;"
-            )
-        );
-        
-        button.setOnMouseExited(e -> 
-            button.setStyle(
-                "-fx-background-color: transparent;" +
-                "-fx-text-fill: white;" +
-                "-fx-font-size: 14px;" +
-                "-fx-cursor: hand;"
-            )
-        );
-        
+        button.getStyleClass().add("nav-button");
         return button;
     }
     
@@ -122,7 +94,7 @@ public class DashBoard {
         sidebar.setPrefWidth(220);
         sidebar.setPadding(new Insets(20, 0, 20, 0));
         sidebar.setSpacing(10);
-        sidebar.setStyle("-fx-background-color: #343A40;");
+        sidebar.getStyleClass().add("sidebar");
         
         Text menuTitle = new Text("DASHBOARD");
         menuTitle.setFont(Font.font("Arial", FontWeight.BOLD, 12));
@@ -159,47 +131,8 @@ public class DashBoard {
         button.setPrefHeight(40);
         button.setAlignment(Pos.BASELINE_LEFT);
         button.setPadding(new Insets(0, 0, 0, 20));
-        
-        if (isActive) {
-            button.setStyle(
-                "-fx-background-color: " + SECONDARY_COLOR + ";" +
-                "-fx-text-fill: white;" +
-                "-fx-font-size: 14px;" +
-                "-fx-cursor: hand;" +
-                "-fx-border-width: 0 0 0 5;" +
-                "-fx-border-color: " + ACCENT_COLOR + ";"
-            );
-        } else {
-            button.setStyle(
-                "-fx-background-color: transparent;" +
-                "-fx-text-fill: #ADB5BD;" +
-                "-fx-font-size: 14px;" +
-                "-fx-cursor: hand;"
-            );
-        }
-        
-        button.setOnMouseEntered(e -> {
-            if (!button.getStyle().contains(SECONDARY_COLOR)) {
-                button.setStyle(
-                    "-fx-background-color: #2C3338;" +
-                    "-fx-text-fill: white;" +
-                    "-fx-font-size: 14px;" +
-                    "-fx-cursor: hand;"
-                );
-            }
-        });
-        
-        button.setOnMouseExited(e -> {
-            if (!button.getStyle().contains(SECONDARY_COLOR)) {
-                button.setStyle(
-                    "-fx-background-color: transparent;" +
-                    "-fx-text-fill: #ADB5BD;" +
-                    "-fx-font-size: 14px;" +
-                    "-fx-cursor: hand;"
-                );
-            }
-        });
-        
+        button.getStyleClass().add("sidebar-button");
+        Styles.setSelected(button, isActive);
         return button;
     }
 }
\ No newline at end of file
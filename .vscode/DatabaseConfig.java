@@ -0,0 +1,76 @@
+// Connection settings for the application database. The defaults match the
+// local MySQL set up by setup_mysql.sh; each can be overridden with a system
+// property, e.g. -Dagritech.db.url=jdbc:h2:mem:agritech for a local embedded
+// database:
+//
+//   agritech.db.url, agritech.db.user, agritech.db.password,
+//   agritech.db.poolSize, agritech.db.acquireTimeoutMillis
+public final class DatabaseConfig {
+    
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3308/agritech";
+    private static final String DEFAULT_USER = "root";
+    private static final String DEFAULT_PASSWORD = "1109"; // MySQL root password
+    
+    // Added to MySQL URLs: create the schema on first connect, fail fast when
+    // the server is down, let the driver keep parsed statements per connection,
+    // and send batched inserts as multi-row statements
+    private static final String MYSQL_PROPERTIES = "createDatabaseIfNotExist=true&connectTimeout=5000"
+            + "&cachePrepStmts=true&useServerPrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048"
+            + "&rewriteBatchedStatements=true";
+    
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int poolSize;
+    private final long acquireTimeoutMillis;
+    
+    public DatabaseConfig(String url, String user, String password, int poolSize, long acquireTimeoutMillis) {
+        if (poolSize < 1 || acquireTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Pool size must be positive and the acquire timeout not negative");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.poolSize = poolSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+    
+    public static DatabaseConfig fromSystemProperties() {
+        return new DatabaseConfig(
+            withDriverProperties(System.getProperty("agritech.db.url", DEFAULT_URL)),
+            System.getProperty("agritech.db.user", DEFAULT_USER),
+            System.getProperty("agritech.db.password", DEFAULT_PASSWORD),
+            Integer.getInteger("agritech.db.poolSize", 4),
+            Long.getLong("agritech.db.acquireTimeoutMillis", 5000L)
+        );
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public String getUser() {
+        return user;
+    }
+    
+    public String getPassword() {
+        return password;
+    }
+    
+    // Most connections open at once
+    public int getPoolSize() {
+        return poolSize;
+    }
+    
+    // How long getConnection waits for a free connection when all are in use
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+    
+    private static String withDriverProperties(String url) {
+        if (!url.startsWith("jdbc:mysql:") || url.contains("cachePrepStmts")) {
+            return url;
+        }
+        return url + (url.indexOf('?') >= 0 ? "&" : "?") + MYSQL_PROPERTIES;
+    }
+}
\ No newline at end of file
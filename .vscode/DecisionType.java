@@ -0,0 +1,28 @@
+// The action an irrigation decision asks for
+public enum DecisionType {
+    IRRIGATE_IMMEDIATELY("Irrigate Immediately", true),
+    IRRIGATE_SOON("Irrigate Soon", true),
+    MONITOR("Monitor", false),
+    DO_NOT_IRRIGATE("Do Not Irrigate", false);
+    
+    private final String label;
+    private final boolean requiresIrrigation;
+    
+    DecisionType(String label, boolean requiresIrrigation) {
+        this.label = label;
+        this.requiresIrrigation = requiresIrrigation;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    public boolean requiresIrrigation() {
+        return requiresIrrigation;
+    }
+    
+    @Override
+    public String toString() {
+        return label;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+// Reduces a chart series to the number of points its width can show,
+// using Largest-Triangle-Three-Buckets: the first and last points are kept,
+// the rest are split into equal buckets and each bucket keeps the point that
+// forms the largest triangle with the previously kept point and the average
+// of the next bucket. Peaks and dips survive, so the line keeps its shape
+// while the chart only ever creates a bounded number of nodes.
+public final class Downsampler {
+    
+    // Points closer together than this are not told apart on screen
+    static final double PIXELS_PER_POINT = 4.0;
+    // Point markers only help while the points are well apart
+    static final int MAX_POINTS_WITH_SYMBOLS = 60;
+    
+    private static final int MIN_POINTS = 3;
+    private static final int UNLAID_OUT_POINTS = 150;
+    
+    private Downsampler() {
+    }
+    
+    // Number of points worth plotting on a chart of the given width; a chart
+    // that has not been laid out yet (width 0) gets a moderate default
+    public static int pointBudget(double pixelWidth) {
+        if (!(pixelWidth > 0)) {
+            return UNLAID_OUT_POINTS;
+        }
+        return Math.max(MIN_POINTS, (int) (pixelWidth / PIXELS_PER_POINT));
+    }
+    
+    public static boolean showSymbols(int points) {
+        return points <= MAX_POINTS_WITH_SYMBOLS;
+    }
+    
+    // Picks at most maxPoints of the first count points (x ascending) and
+    // writes their indexes, in order, to selected. Returns how many were picked.
+    public static int largestTriangleThreeBuckets(double[] x, double[] y, int count, int maxPoints, int[] selected) {
+        if (count < 0 || x.length < count || y.length < count) {
+            throw new IllegalArgumentException("Series arrays are shorter than count " + count);
+        }
+        if (maxPoints < MIN_POINTS) {
+            throw new IllegalArgumentException("At least " + MIN_POINTS + " points are needed, got " + maxPoints);
+        }
+        if (selected.length < Math.min(count, maxPoints)) {
+            throw new IllegalArgumentException("Selection array is shorter than " + Math.min(count, maxPoints));
+        }
+        
+        if (count <= maxPoints) {
+            for (int i = 0; i < count; i++) {
+                selected[i] = i;
+            }
+            return count;
+        }
+        
+        // Buckets for everything between the first and the last point
+        double bucketSize = (double) (count - 2) / (maxPoints - 2);
+        int picked = 0;
+        int previous = 0;
+        selected[picked++] = previous;
+        
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+            
+            // Average of the next bucket (just the last point for the final bucket)
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, count);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            averageX /= nextCount;
+            averageY /= nextCount;
+            
+            double previousX = x[previous];
+            double previousY = y[previous];
+            double largestArea = -1;
+            int largest = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle area; only the comparison matters
+                double area = Math.abs((previousX - averageX) * (y[i] - previousY)
+                        - (previousX - x[i]) * (averageY - previousY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    largest = i;
+                }
+            }
+            selected[picked++] = largest;
+            previous = largest;
+        }
+        
+        selected[picked++] = count - 1;
+        return picked;
+    }
+}
\ No newline at end of file
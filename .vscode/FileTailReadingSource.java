@@ -0,0 +1,123 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Follows a file that a logger appends readings to, one per line, like
+// "tail -F". New data is picked up every poll interval; if the file shrinks
+// (truncated or rotated) reading starts again from the beginning.
+public class FileTailReadingSource implements AutoCloseable {
+    
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    
+    private final SensorIngestPipeline pipeline;
+    private final Path file;
+    private final boolean fromStart;
+    private final AtomicLong rejectedLines = new AtomicLong();
+    private final Thread tailThread;
+    private volatile boolean running;
+    
+    // fromStart = false skips whatever is already in the file
+    public FileTailReadingSource(SensorIngestPipeline pipeline, Path file, boolean fromStart) {
+        this.pipeline = pipeline;
+        this.file = file;
+        this.fromStart = fromStart;
+        this.tailThread = new Thread(this::tail, "sensor-file-tail");
+        tailThread.setDaemon(true);
+    }
+    
+    public void start() {
+        running = true;
+        tailThread.start();
+    }
+    
+    public long getRejectedLines() {
+        return rejectedLines.get();
+    }
+    
+    // Stops following the file and waits for the tail thread; if interrupted,
+    // returns at once with the interrupt flag set
+    @Override
+    public void close() {
+        running = false;
+        tailThread.interrupt();
+        try {
+            tailThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void tail() {
+        SensorReadingParser parser = new SensorReadingParser();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        byte[] lineBytes = new byte[1024];
+        int lineLength = 0;
+        long position = -1;
+        
+        while (running) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (position < 0) {
+                    position = fromStart ? 0 : channel.size();
+                }
+                if (channel.size() < position) {
+                    position = 0;
+                    lineLength = 0;
+                }
+                
+                int read;
+                while (running && (read = channel.read(buffer, position)) > 0) {
+                    position += read;
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        byte b = buffer.get();
+                        if (b == '\n') {
+                            submitLine(parser, lineBytes, lineLength);
+                            lineLength = 0;
+                        } else if (b != '\r') {
+                            if (lineLength == lineBytes.length) {
+                                lineBytes = Arrays.copyOf(lineBytes, lineBytes.length * 2);
+                            }
+                            lineBytes[lineLength++] = b;
+                        }
+                    }
+                    buffer.clear();
+                }
+            } catch (NoSuchFileException e) {
+                // Not created yet, or being rotated: read the new file from its start
+                position = 0;
+                lineLength = 0;
+            } catch (IOException e) {
+                System.err.println("Sensor file tail error: " + e.getMessage());
+            } catch (InterruptedException e) {
+                return;
+            } catch (IllegalStateException e) {
+                // Pipeline shut down
+                return;
+            }
+            
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+    
+    private void submitLine(SensorReadingParser parser, byte[] lineBytes, int length) throws InterruptedException {
+        if (length == 0) {
+            return;
+        }
+        try {
+            pipeline.submit(parser.parse(new String(lineBytes, 0, length, StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            rejectedLines.incrementAndGet();
+        }
+    }
+}
\ No newline at end of file
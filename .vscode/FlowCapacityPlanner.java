@@ -0,0 +1,250 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+// Packs the irrigation demands of many zones into a timetable that never
+// draws more than the supply's total flow capacity, so a site doesn't open
+// more valves than its pump and mains can feed.
+//
+// Finding the shortest timetable is NP-hard (it is strip packing), so this
+// uses list scheduling: demands are taken urgent first and then longest
+// first, and whenever flow is freed every waiting demand that fits starts,
+// so short demands fill the gaps next to long ones. Longest-first keeps the
+// long cycles from being left for the end, which is what makes the plan
+// long. The work is O(n log n) plus a pass over the waiting demands at each
+// cycle end that frees enough flow for one of them, well under a
+// millisecond for hundreds of zones.
+public class FlowCapacityPlanner {
+    
+    // A zone that needs water
+    public static final class Demand {
+        private final String zone;
+        private final double flowRate;
+        private final long durationMillis;
+        private final boolean urgent;
+        
+        public Demand(String zone, double flowRate, long duration, TimeUnit unit, boolean urgent) {
+            if (flowRate <= 0 || duration <= 0) {
+                throw new IllegalArgumentException("Flow rate and duration must be positive");
+            }
+            this.zone = zone;
+            this.flowRate = flowRate;
+            this.durationMillis = unit.toMillis(duration);
+            this.urgent = urgent;
+        }
+        
+        // The demand a decision asks for: its irrigation amount is the
+        // percentage of a full cycle to run. Returns null if the decision
+        // doesn't call for irrigation.
+        public static Demand fromDecision(String zone, IrrigationDecision decision, double flowRate,
+                                          long fullCycle, TimeUnit unit) {
+            if (!decision.getDecision().requiresIrrigation() || decision.getIrrigationAmount() <= 0) {
+                return null;
+            }
+            long duration = Math.max(1, Math.round(unit.toMillis(fullCycle) * decision.getIrrigationAmount() / 100.0));
+            return new Demand(zone, flowRate, duration, TimeUnit.MILLISECONDS,
+                    decision.getDecision() == DecisionType.IRRIGATE_IMMEDIATELY);
+        }
+        
+        public String getZone() {
+            return zone;
+        }
+        
+        // Litres per minute
+        public double getFlowRate() {
+            return flowRate;
+        }
+        
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+        
+        public boolean isUrgent() {
+            return urgent;
+        }
+    }
+    
+    // When a zone runs, relative to the start of the plan
+    public static final class Slot {
+        private final String zone;
+        private final double flowRate;
+        private final long startMillis;
+        private final long durationMillis;
+        
+        Slot(String zone, double flowRate, long startMillis, long durationMillis) {
+            this.zone = zone;
+            this.flowRate = flowRate;
+            this.startMillis = startMillis;
+            this.durationMillis = durationMillis;
+        }
+        
+        public String getZone() {
+            return zone;
+        }
+        
+        public double getFlowRate() {
+            return flowRate;
+        }
+        
+        public long getStartMillis() {
+            return startMillis;
+        }
+        
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+        
+        public long getEndMillis() {
+            return startMillis + durationMillis;
+        }
+    }
+    
+    public static final class Plan {
+        private final List<Slot> slots;
+        private final double capacity;
+        private final long lowerBoundMillis;
+        
+        Plan(List<Slot> slots, double capacity, long lowerBoundMillis) {
+            this.slots = Collections.unmodifiableList(slots);
+            this.capacity = capacity;
+            this.lowerBoundMillis = lowerBoundMillis;
+        }
+        
+        // Slots in start order
+        public List<Slot> getSlots() {
+            return slots;
+        }
+        
+        public double getCapacity() {
+            return capacity;
+        }
+        
+        // When the last zone finishes
+        public long getMakespanMillis() {
+            long end = 0;
+            for (Slot slot : slots) {
+                end = Math.max(end, slot.getEndMillis());
+            }
+            return end;
+        }
+        
+        // No plan can finish sooner: the longest cycle, or the total water
+        // at full capacity, whichever is longer
+        public long getLowerBoundMillis() {
+            return lowerBoundMillis;
+        }
+    }
+    
+    // Urgent first, then longest first
+    private static final Comparator<Demand> PRIORITY = Comparator.comparing((Demand d) -> !d.urgent)
+            .thenComparing(Comparator.comparingLong((Demand d) -> d.durationMillis).reversed())
+            .thenComparing(Comparator.comparingDouble((Demand d) -> d.flowRate).reversed());
+    // Flow rounding slack, so demands that exactly fill the supply still fit
+    private static final double EPSILON = 1e-9;
+    
+    private final double capacity;
+    
+    // Total flow capacity of the supply in litres per minute
+    public FlowCapacityPlanner(double capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+    
+    public double getCapacity() {
+        return capacity;
+    }
+    
+    // A zone with two demands is planned once, for the more urgent and then
+    // longer one. A demand that alone needs more than the capacity runs
+    // throttled to the capacity, for longer, so it still gets its water.
+    public Plan plan(List<Demand> demands) {
+        return plan(demands, Collections.emptyList());
+    }
+    
+    // Like plan(demands), around cycles that are already running: each is
+    // given for its remaining time and holds its flow until then, but isn't
+    // part of the plan
+    public Plan plan(List<Demand> demands, List<Demand> inProgress) {
+        Demand[] waiting = uniqueByZone(demands);
+        Arrays.sort(waiting, PRIORITY);
+        
+        double totalLiterMillis = 0;
+        long longest = 0;
+        for (int i = 0; i < waiting.length; i++) {
+            Demand demand = waiting[i];
+            if (demand.flowRate > capacity) {
+                long stretched = (long) Math.ceil(demand.durationMillis * demand.flowRate / capacity);
+                waiting[i] = new Demand(demand.zone, capacity, stretched, TimeUnit.MILLISECONDS, demand.urgent);
+            }
+            totalLiterMillis += waiting[i].flowRate * waiting[i].durationMillis;
+            longest = Math.max(longest, waiting[i].durationMillis);
+        }
+        long lowerBound = Math.max(longest, (long) Math.ceil(totalLiterMillis / capacity));
+        
+        List<Slot> slots = new ArrayList<>(waiting.length);
+        // Running slots by end time
+        PriorityQueue<Slot> running = new PriorityQueue<>(Comparator.comparingLong(Slot::getEndMillis));
+        int remaining = waiting.length;
+        double available = capacity;
+        for (Demand demand : inProgress) {
+            running.add(new Slot(demand.zone, demand.flowRate, 0, demand.durationMillis));
+            available -= demand.flowRate;
+        }
+        // Smallest flow still waiting; until that much is free nothing can start
+        double smallestWaiting = 0;
+        long now = 0;
+        while (remaining > 0) {
+            if (available + EPSILON >= smallestWaiting) {
+                // Start everything that fits, in priority order, keeping the rest in order
+                int kept = 0;
+                smallestWaiting = Double.MAX_VALUE;
+                for (int i = 0; i < remaining; i++) {
+                    Demand demand = waiting[i];
+                    if (demand.flowRate <= available + EPSILON) {
+                        Slot slot = new Slot(demand.zone, demand.flowRate, now, demand.durationMillis);
+                        slots.add(slot);
+                        running.add(slot);
+                        available -= demand.flowRate;
+                    } else {
+                        waiting[kept++] = demand;
+                        smallestWaiting = Math.min(smallestWaiting, demand.flowRate);
+                    }
+                }
+                Arrays.fill(waiting, kept, remaining, null);
+                remaining = kept;
+                if (remaining == 0) {
+                    break;
+                }
+            }
+            
+            // Wait for the next cycle to end, releasing everything ending then
+            now = running.peek().getEndMillis();
+            while (!running.isEmpty() && running.peek().getEndMillis() == now) {
+                available += running.poll().flowRate;
+            }
+            if (running.isEmpty()) {
+                // Avoid drift from adding and subtracting flows
+                available = capacity;
+            }
+        }
+        return new Plan(slots, capacity, lowerBound);
+    }
+    
+    private static Demand[] uniqueByZone(List<Demand> demands) {
+        Demand[] sorted = demands.toArray(new Demand[0]);
+        Arrays.sort(sorted, Comparator.comparing((Demand d) -> d.zone).thenComparing(PRIORITY));
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || !sorted[i].zone.equals(sorted[i - 1].zone)) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,185 @@
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runs the sensor ingestion pipeline without a UI, for unattended controllers.
+//
+//   java -cp .vscode HeadlessIngestService --port 5140
+//   java -cp .vscode HeadlessIngestService --tail /var/log/probes.csv
+//
+// Options: --port <port> listen for probes on localhost, --tail <file> follow a
+// file, --workers <n> decision threads (default: available processors),
+// --queue <n> readings buffered per worker (default 8192), --history <dir> keep
+// every reading in a SensorHistoryStore under the directory, --database also
+// save every reading to the database set by the agritech.db.* properties,
+// --auto water each location as its own zone from the decisions (auto mode),
+// printing every valve start and stop.
+public class HeadlessIngestService {
+    
+    private static final long REPORT_INTERVAL_MILLIS = 10_000;
+    private static final int DATABASE_BATCH_SIZE = 1000;
+    private static final long DATABASE_FLUSH_MILLIS = 1_000;
+    private static final int DATABASE_QUEUE_CAPACITY = 100_000;
+    private static final double AUTO_FLOW_RATE = 50;
+    private static final long AUTO_FULL_CYCLE_MINUTES = 30;
+    private static final long AUTO_REST_MINUTES = 30;
+    
+    public static void main(String[] args) throws Exception {
+        int port = -1;
+        String tailFile = null;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int queueCapacity = 8192;
+        String historyDirectory = null;
+        boolean database = false;
+        boolean auto = false;
+        
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(required(args[i], value));
+                    i++;
+                    break;
+                case "--tail":
+                    tailFile = required(args[i], value);
+                    i++;
+                    break;
+                case "--workers":
+                    workers = Integer.parseInt(required(args[i], value));
+                    i++;
+                    break;
+                case "--queue":
+                    queueCapacity = Integer.parseInt(required(args[i], value));
+                    i++;
+                    break;
+                case "--history":
+                    historyDirectory = required(args[i], value);
+                    i++;
+                    break;
+                case "--database":
+                    database = true;
+                    break;
+                case "--auto":
+                    auto = true;
+                    break;
+                default:
+                    usage("Unknown option " + args[i]);
+            }
+        }
+        if (port < 0 && tailFile == null) {
+            usage("Either --port or --tail is required");
+        }
+        
+        SensorIngestPipeline pipeline = new SensorIngestPipeline(new SensorSimulator(), workers, queueCapacity);
+        LongAdder[] decisionCounts = new LongAdder[DecisionType.values().length];
+        for (int i = 0; i < decisionCounts.length; i++) {
+            decisionCounts[i] = new LongAdder();
+        }
+        pipeline.addListener((reading, decision) -> decisionCounts[decision.getDecision().ordinal()].increment());
+        SensorHistoryStore history = historyDirectory != null ? new SensorHistoryStore(Paths.get(historyDirectory)) : null;
+        if (history != null) {
+            pipeline.addListener((reading, decision) -> history.append(reading));
+        }
+        ConnectionPool dataSource = null;
+        SensorReadingWriter readingWriter = null;
+        if (database) {
+            dataSource = new ConnectionPool(DatabaseConfig.fromSystemProperties());
+            new SchemaMigrator(dataSource, SchemaMigrator.applicationMigrations(new PasswordHasher())).migrate();
+            readingWriter = new SensorReadingWriter(dataSource, DATABASE_BATCH_SIZE, DATABASE_FLUSH_MILLIS,
+                    TimeUnit.MILLISECONDS, DATABASE_QUEUE_CAPACITY);
+            readingWriter.start();
+            SensorReadingWriter writer = readingWriter;
+            pipeline.addListener((reading, decision) -> writer.write(reading));
+        }
+        IrrigationScheduler scheduler = null;
+        if (auto) {
+            scheduler = new IrrigationScheduler();
+            scheduler.addListener(event -> System.out.println(TimeFormats.formatDayHour(event.getTimestamp()) + " "
+                    + event.getZone() + " " + event.getAction().getLabel() + ": " + event.getDetails()));
+            pipeline.addListener(new AutoIrrigationController(scheduler, SensorReading::getLocation, AUTO_FLOW_RATE,
+                    AUTO_FULL_CYCLE_MINUTES, AUTO_REST_MINUTES, TimeUnit.MINUTES));
+        }
+        pipeline.start();
+        
+        SocketReadingSource socketSource = null;
+        FileTailReadingSource fileSource = null;
+        if (port >= 0) {
+            socketSource = new SocketReadingSource(pipeline, port);
+            socketSource.start();
+            System.out.println("Listening for sensor readings on localhost:" + socketSource.getPort());
+        }
+        if (tailFile != null) {
+            fileSource = new FileTailReadingSource(pipeline, Paths.get(tailFile), false);
+            fileSource.start();
+            System.out.println("Following sensor readings in " + tailFile);
+        }
+        
+        SocketReadingSource closeSocket = socketSource;
+        FileTailReadingSource closeFile = fileSource;
+        ConnectionPool closeDataSource = dataSource;
+        SensorReadingWriter closeWriter = readingWriter;
+        IrrigationScheduler closeScheduler = scheduler;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                if (closeSocket != null) {
+                    closeSocket.close();
+                }
+                if (closeFile != null) {
+                    closeFile.close();
+                }
+                pipeline.close();
+                if (closeScheduler != null) {
+                    closeScheduler.close();
+                }
+                if (history != null) {
+                    history.close();
+                }
+                if (closeWriter != null) {
+                    closeWriter.close();
+                    closeDataSource.close();
+                }
+            } catch (Exception e) {
+                System.err.println("Shutdown error: " + e.getMessage());
+            }
+            System.out.println("Processed " + pipeline.getProcessedCount() + " readings");
+        }));
+        
+        long lastProcessed = 0;
+        while (true) {
+            Thread.sleep(REPORT_INTERVAL_MILLIS);
+            long processed = pipeline.getProcessedCount();
+            long rejected = (socketSource != null ? socketSource.getRejectedLines() : 0)
+                    + (fileSource != null ? fileSource.getRejectedLines() : 0);
+            
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("%.0f readings/s, %d queued, %d rejected lines",
+                    (processed - lastProcessed) * 1000.0 / REPORT_INTERVAL_MILLIS,
+                    pipeline.getQueuedCount(), rejected));
+            for (DecisionType type : DecisionType.values()) {
+                report.append(", ").append(type.getLabel()).append(": ").append(decisionCounts[type.ordinal()].sum());
+            }
+            if (readingWriter != null) {
+                report.append(String.format(", %d saved, %d dropped",
+                        readingWriter.getWrittenCount(), readingWriter.getDroppedCount()));
+            }
+            if (scheduler != null) {
+                report.append(String.format(", %d zones irrigating", scheduler.getRunningZones().size()));
+            }
+            System.out.println(report);
+            lastProcessed = processed;
+        }
+    }
+    
+    private static String required(String option, String value) {
+        if (value == null) {
+            usage(option + " needs a value");
+        }
+        return value;
+    }
+    
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: HeadlessIngestService [--port <port>] [--tail <file>] [--workers <n>] [--queue <n>] [--history <dir>] [--database] [--auto]");
+        System.exit(1);
+    }
+}
\ No newline at end of file
@@ -1,9 +1,8 @@
 import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
@@ -15,16 +14,16 @@ import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 import javafx.util.Duration;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
-public class IrrigationControlPage {
+public class IrrigationControlPage implements Page {
     
     private static final String PRIMARY_COLOR = "#1A5F7A";
     private static final String SECONDARY_COLOR = "#2E8B57";
-    private static final String ACCENT_COLOR = "#FF6347";
-    private static final String BACKGROUND_COLOR = "#F8F9FA";
+    // Events shown in the log panel
+    private static final int LOG_PANEL_EVENTS = 200;
     
     private MainApp mainApp;
     private Random random = new Random();
@@ -38,17 +37,23 @@ public class IrrigationControlPage {
     private ComboBox<String> zoneSelector;
     private Button startIrrigationButton;
     private Button stopIrrigationButton;
+    private Button planButton;
+    private Text planText;
     private ProgressBar irrigationProgressBar;
     private Text statusText;
     private Label timerLabel;
     
-    // Irrigation status
-    private boolean irrigationActive = false;
-    private Timeline irrigationTimer;
-    private int secondsRemaining = 0;
+    // Irrigation status; the cycles themselves belong to the scheduler
+    private IrrigationScheduler scheduler;
+    private AutoIrrigationController autoIrrigation;
+    private IrrigationScheduler.Listener schedulerListener;
+    private Timeline statusRefresh;
+    // Also set before the first resume, since a prebuilt page may be shown
+    // long after it was built; resume then loads the latest events
+    private boolean suspended = true;
     
-    // Irrigation log
-    private final ObservableList<IrrigationEvent> irrigationLog = FXCollections.observableArrayList();
+    // Irrigation log, newest first
+    private final RingBufferObservableList<IrrigationEvent> irrigationLog = new RingBufferObservableList<>(LOG_PANEL_EVENTS);
     
     public IrrigationControlPage() {
         // Default constructor
@@ -58,10 +63,11 @@ public class IrrigationControlPage {
         this.mainApp = mainApp;
     }
     
+    @Override
     public Parent createContent() {
         BorderPane root = new BorderPane();
         root.setPadding(new Insets(20));
-        root.setStyle("-fx-background-color: " + BACKGROUND_COLOR + ";");
+        root.getStyleClass().add("page");
         
         // Header
         VBox headerBox = createHeader();
@@ -79,8 +85,20 @@ public class IrrigationControlPage {
         VBox rightPanel = createLogPanel();
         root.setRight(rightPanel);
         
-        // Setup irrigation timer
-        setupIrrigationTimer();
+        // Without the application (e.g. in a preview), run a private scheduler,
+        // closed whenever the page is hidden, and no auto mode
+        scheduler = mainApp != null ? mainApp.getIrrigationScheduler() : new IrrigationScheduler();
+        autoIrrigation = mainApp != null ? mainApp.getAutoIrrigation() : null;
+        if (autoIrrigation != null && !autoIrrigation.isEnabled()) {
+            manualButton.setSelected(true);
+        }
+        zoneSelector.valueProperty().addListener((obs, oldVal, newVal) -> refreshStatus());
+        schedulerListener = event -> Platform.runLater(() -> {
+            showEvent(event);
+            refreshStatus();
+        });
+        statusRefresh = new Timeline(new KeyFrame(Duration.millis(250), e -> refreshStatus()));
+        statusRefresh.setCycleCount(Animation.INDEFINITE);
         
         return root;
     }
@@ -91,12 +109,7 @@ public class IrrigationControlPage {
         headerContainer.setSpacing(20);
         
         Button backButton = new Button("← Back to Dashboard");
-        backButton.setStyle(
-            "-fx-background-color: transparent;" +
-            "-fx-text-fill: " + PRIMARY_COLOR + ";" +
-            "-fx-font-weight: bold;" +
-            "-fx-cursor: hand;"
-        );
+        backButton.getStyleClass().add("back-button");
         
         backButton.setOnAction(e -> {
             if (mainApp != null) {
@@ -127,7 +140,7 @@ public class IrrigationControlPage {
     private VBox createControlPanel() {
         VBox panel = new VBox(15);
         panel.setPadding(new Insets(10));
-        panel.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        panel.getStyleClass().add("card");
         panel.setPrefWidth(280);
         
         Text controlsTitle = new Text("System Controls");
@@ -145,22 +158,17 @@ public class IrrigationControlPage {
         autoButton = new ToggleButton("Auto");
         autoButton.setToggleGroup(systemModeGroup);
         autoButton.setSelected(true);
-        styleToggleButton(autoButton, true);
+        autoButton.getStyleClass().add("mode-toggle");
         
         manualButton = new ToggleButton("Manual");
         manualButton.setToggleGroup(systemModeGroup);
-        styleToggleButton(manualButton, false);
+        manualButton.getStyleClass().add("mode-toggle");
         
         systemModeGroup.selectedToggleProperty().addListener((obs, oldVal, newVal) -> {
-            if (newVal == autoButton) {
-                styleToggleButton(autoButton, true);
-                styleToggleButton(manualButton, false);
-                updateControlsAvailability(false);
-            } else {
-                styleToggleButton(autoButton, false);
-                styleToggleButton(manualButton, true);
-                updateControlsAvailability(true);
+            if (autoIrrigation != null) {
+                autoIrrigation.setEnabled(newVal == autoButton);
             }
+            updateControlsAvailability(newVal != autoButton);
         });
         
         autoButton.setPrefWidth(120);
@@ -228,23 +236,13 @@ public class IrrigationControlPage {
         buttonBox.setPadding(new Insets(10, 0, 0, 0));
         
         startIrrigationButton = new Button("Start Irrigation");
-        startIrrigationButton.setStyle(
-            "-fx-background-color: " + SECONDARY_COLOR + ";" +
-            "-fx-text-fill: white;" +
-            "-fx-padding: 8 15;" +
-            "-fx-background-radius: 5;"
-        );
+        startIrrigationButton.getStyleClass().add("secondary-button");
         startIrrigationButton.setDisable(true);
         startIrrigationButton.setMaxWidth(Double.MAX_VALUE);
         startIrrigationButton.setOnAction(e -> startIrrigation());
         
         stopIrrigationButton = new Button("Stop");
-        stopIrrigationButton.setStyle(
-            "-fx-background-color: " + ACCENT_COLOR + ";" +
-            "-fx-text-fill: white;" +
-            "-fx-padding: 8 15;" +
-            "-fx-background-radius: 5;"
-        );
+        stopIrrigationButton.getStyleClass().add("danger-button");
         stopIrrigationButton.setDisable(true);
         stopIrrigationButton.setMaxWidth(Double.MAX_VALUE);
         stopIrrigationButton.setOnAction(e -> stopIrrigation());
@@ -254,6 +252,16 @@ public class IrrigationControlPage {
         
         buttonBox.getChildren().addAll(startIrrigationButton, stopIrrigationButton);
         
+        // Auto mode: water every zone that needs it within the pump's flow
+        planButton = new Button("Plan All Zones");
+        planButton.getStyleClass().add("primary-button");
+        planButton.setMaxWidth(Double.MAX_VALUE);
+        planButton.setOnAction(e -> planAllZones());
+        
+        planText = new Text("");
+        planText.setFont(Font.font("Arial", 12));
+        planText.setFill(Color.web("#6C757D"));
+        
         // System Status Information
         Text systemStatusLabel = new Text("System Information");
         systemStatusLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
@@ -302,6 +310,8 @@ public class IrrigationControlPage {
             durationSlider,
             durationBox,
             buttonBox,
+            planButton,
+            planText,
             new Separator(),
             systemStatusLabel,
             infoGrid
@@ -313,7 +323,7 @@ public class IrrigationControlPage {
     private VBox createStatusPanel() {
         VBox panel = new VBox(15);
         panel.setPadding(new Insets(10, 20, 10, 20));
-        panel.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        panel.getStyleClass().add("card");
         
         Text statusTitle = new Text("Current Irrigation Status");
         statusTitle.setFont(Font.font("Arial", FontWeight.BOLD, 20));
@@ -332,7 +342,6 @@ public class IrrigationControlPage {
         irrigationProgressBar = new ProgressBar(0);
         irrigationProgressBar.setPrefWidth(Double.MAX_VALUE);
         irrigationProgressBar.setPrefHeight(20);
-        irrigationProgressBar.setStyle("-fx-accent: " + SECONDARY_COLOR + ";");
         
         // Current zone info
         VBox zoneInfoBox = new VBox(5);
@@ -436,7 +445,7 @@ public class IrrigationControlPage {
     private VBox createLogPanel() {
         VBox panel = new VBox(10);
         panel.setPadding(new Insets(10));
-        panel.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        panel.getStyleClass().add("card");
         panel.setPrefWidth(300);
         
         Text logTitle = new Text("Irrigation Log");
@@ -448,26 +457,23 @@ public class IrrigationControlPage {
         logTable.setPrefHeight(500);
         
         TableColumn<IrrigationEvent, String> timeCol = new TableColumn<>("Time");
-        timeCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().timestamp));
+        timeCol.setCellValueFactory(data -> new SimpleStringProperty(TimeFormats.formatDayHour(data.getValue().getTimestamp())));
         timeCol.setPrefWidth(80);
         
         TableColumn<IrrigationEvent, String> zoneCol = new TableColumn<>("Zone");
-        zoneCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().zone));
+        zoneCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getZone()));
         zoneCol.setPrefWidth(60);
         
         TableColumn<IrrigationEvent, String> actionCol = new TableColumn<>("Action");
-        actionCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().action));
+        actionCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getAction().getLabel()));
         actionCol.setPrefWidth(70);
         
         TableColumn<IrrigationEvent, String> detailsCol = new TableColumn<>("Details");
-        detailsCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().details));
+        detailsCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getDetails()));
         detailsCol.setPrefWidth(90);
         
         logTable.getColumns().addAll(timeCol, zoneCol, actionCol, detailsCol);
         
-        // Add sample log entries
-        addSampleLogEntries();
-        
         // Filter section
         Text filterLabel = new Text("Filter by:");
         filterLabel.setFont(Font.font("Arial", FontWeight.MEDIUM, 14));
@@ -479,12 +485,7 @@ public class IrrigationControlPage {
         
         // Export button
         Button exportButton = new Button("Export Log");
-        exportButton.setStyle(
-            "-fx-background-color: #6C757D;" +
-            "-fx-text-fill: white;" +
-            "-fx-padding: 8 15;" +
-            "-fx-background-radius: 5;"
-        );
+        exportButton.getStyleClass().add("muted-button");
         exportButton.setMaxWidth(Double.MAX_VALUE);
         
         panel.getChildren().addAll(
@@ -499,140 +500,112 @@ public class IrrigationControlPage {
         return panel;
     }
     
-    private void styleToggleButton(ToggleButton button, boolean selected) {
-        if (selected) {
-            button.setStyle(
-                "-fx-background-color: " + PRIMARY_COLOR + ";" +
-                "-fx-text-fill: white;" +
-                "-fx-padding: 5 15;" +
-                "-fx-font-weight: bold;" +
-                "-fx-background-radius: 3;"
-            );
-        } else {
-            button.setStyle(
-                "-fx-background-color: #DEE2E6;" +
-                "-fx-text-fill: #495057;" +
-                "-fx-padding: 5 15;" +
-                "-fx-background-radius: 3;"
-            );
-        }
-    }
-    
     private void updateControlsAvailability(boolean enable) {
         // In Auto mode, the controls are disabled
         // In Manual mode, the controls are enabled
         waterVolumeSlider.setDisable(!enable);
         durationSlider.setDisable(!enable);
-        startIrrigationButton.setDisable(!enable);
+        refreshStatus();
+    }
+    
+    // Follows the scheduler while the page is on screen: events as they
+    // happen, and the countdown of the selected zone a few times a second
+    @Override
+    public void resume() {
+        if (suspended) {
+            // Catch up on the events logged since the page was hidden or built
+            suspended = false;
+            loadRecentEvents();
+        }
+        scheduler.addListener(schedulerListener);
+        statusRefresh.play();
+        refreshStatus();
+    }
+    
+    @Override
+    public void suspend() {
+        suspended = true;
+        scheduler.removeListener(schedulerListener);
+        statusRefresh.stop();
+        if (mainApp == null) {
+            // Ends the private scheduler's cycles and timer thread; a new
+            // scheduler starts no thread until a cycle is started
+            scheduler.close();
+            scheduler = new IrrigationScheduler();
+        }
+    }
+    
+    // Shows the selected zone's cycle, or the idle state for the current mode
+    private void refreshStatus() {
+        planButton.setDisable(autoIrrigation == null || manualButton.isSelected());
+        IrrigationScheduler.ZoneRun run = scheduler.getRun(selectedZone());
+        if (run != null) {
+            long remainingSeconds = (run.getRemainingMillis() + 999) / 1000;
+            timerLabel.setText(String.format("%02d:%02d", remainingSeconds / 60, remainingSeconds % 60));
+            irrigationProgressBar.setProgress(run.getProgress());
+            statusText.setText("Irrigation Active");
+            statusText.setFill(Color.web(SECONDARY_COLOR));
+            startIrrigationButton.setDisable(true);
+            stopIrrigationButton.setDisable(false);
+            return;
+        }
         
-        if (enable) {
+        timerLabel.setText("00:00");
+        irrigationProgressBar.setProgress(0);
+        stopIrrigationButton.setDisable(true);
+        if (manualButton.isSelected()) {
+            startIrrigationButton.setDisable(false);
             statusText.setText("Manual Mode Active");
             statusText.setFill(Color.web(PRIMARY_COLOR));
         } else {
+            startIrrigationButton.setDisable(true);
             statusText.setText("Auto Mode - System Managed");
             statusText.setFill(Color.web(SECONDARY_COLOR));
         }
     }
     
-    private void setupIrrigationTimer() {
-        irrigationTimer = new Timeline(
-            new KeyFrame(Duration.seconds(1), e -> {
-                if (irrigationActive && secondsRemaining > 0) {
-                    secondsRemaining--;
-                    updateTimerDisplay();
-                    
-                    // Update progress bar
-                    int totalSeconds = (int) durationSlider.getValue() * 60;
-                    irrigationProgressBar.setProgress(1.0 - ((double) secondsRemaining / totalSeconds));
-                    
-                    if (secondsRemaining <= 0) {
-                        stopIrrigation();
-                    }
-                }
-            })
-        );
-        irrigationTimer.setCycleCount(Animation.INDEFINITE);
-    }
-    
-    private void updateTimerDisplay() {
-        int minutes = secondsRemaining / 60;
-        int seconds = secondsRemaining % 60;
-        timerLabel.setText(String.format("%02d:%02d", minutes, seconds));
+    private String selectedZone() {
+        return zoneSelector.getValue().split(" - ")[0];
     }
     
     private void startIrrigation() {
-        irrigationActive = true;
-        secondsRemaining = (int) (durationSlider.getValue() * 60);
-        irrigationTimer.play();
-        
-        // Update UI
-        startIrrigationButton.setDisable(true);
-        stopIrrigationButton.setDisable(false);
-        statusText.setText("Irrigation Active");
-        statusText.setFill(Color.web(SECONDARY_COLOR));
-        
-        // Add to log
-        addIrrigationEvent("Start", String.format("%.0f L/min, %d min", 
-                waterVolumeSlider.getValue(), (int) durationSlider.getValue()));
+        // The slider moves in fractions of a minute
+        long durationSeconds = Math.round(durationSlider.getValue() * 60);
+        scheduler.start(selectedZone(), waterVolumeSlider.getValue(), durationSeconds, TimeUnit.SECONDS);
+        refreshStatus();
     }
     
     private void stopIrrigation() {
-        irrigationActive = false;
-        irrigationTimer.stop();
-        
-        // Update UI
-        if (manualButton.isSelected()) {
-            startIrrigationButton.setDisable(false);
-            statusText.setText("Manual Mode Active");
-        } else {
-            startIrrigationButton.setDisable(true);
-            statusText.setText("Auto Mode - System Managed");
-        }
-        
-        stopIrrigationButton.setDisable(true);
-        irrigationProgressBar.setProgress(0);
-        timerLabel.setText("00:00");
-        
-        // Add to log
-        if (secondsRemaining <= 0) {
-            // Completed the full cycle
-            addIrrigationEvent("Complete", "Full cycle completed");
-        } else {
-            // Manually stopped
-            addIrrigationEvent("Stop", "Manually stopped");
-        }
+        scheduler.stop(selectedZone(), "Manually stopped");
+        refreshStatus();
     }
     
-    private void addIrrigationEvent(String action, String details) {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-        String zone = zoneSelector.getValue().split(" - ")[0];
-        
-        irrigationLog.add(0, new IrrigationEvent(timestamp, zone, action, details));
+    // Plans the zones whose latest readings ask for water and starts the plan
+    private void planAllZones() {
+        FlowCapacityPlanner.Plan plan = autoIrrigation.planPending(mainApp.getFlowPlanner());
+        if (plan.getSlots().isEmpty()) {
+            planText.setText("No zone is waiting for water");
+        } else {
+            long minutes = (plan.getMakespanMillis() + 59_999) / 60_000;
+            planText.setText(String.format("%d zones planned at up to %.0f L/min, done in %d min",
+                    plan.getSlots().size(), plan.getCapacity(), minutes));
+        }
     }
     
-    private void addSampleLogEntries() {
-        // Add some sample log entries for demonstration
-        irrigationLog.add(new IrrigationEvent("08:15:32", "Zone 1", "Start", "Auto, 45 L/min, 15 min"));
-        irrigationLog.add(new IrrigationEvent("08:30:32", "Zone 1", "Complete", "Full cycle completed"));
-        irrigationLog.add(new IrrigationEvent("12:45:17", "Zone 2", "Start", "Manual, 60 L/min, 20 min"));
-        irrigationLog.add(new IrrigationEvent("12:53:42", "Zone 2", "Stop", "Manually stopped"));
-        irrigationLog.add(new IrrigationEvent("18:00:00", "Zone 3", "Start", "Auto, 50 L/min, 10 min"));
-        irrigationLog.add(new IrrigationEvent("18:10:00", "Zone 3", "Complete", "Full cycle completed"));
-        irrigationLog.add(new IrrigationEvent("23:30:00", "System", "Error", "Low water pressure"));
+    private void showEvent(IrrigationEvent event) {
+        irrigationLog.addFirst(event);
     }
     
-    // Simple class to represent irrigation events in the log
-    private static class IrrigationEvent {
-        private final String timestamp;
-        private final String zone;
-        private final String action;
-        private final String details;
-        
-        public IrrigationEvent(String timestamp, String zone, String action, String details) {
-            this.timestamp = timestamp;
-            this.zone = zone;
-            this.action = action;
-            this.details = details;
+    // Shows the latest events from the irrigation event log
+    private void loadRecentEvents() {
+        IrrigationEventLog eventLog = mainApp != null ? mainApp.getEventLog() : null;
+        if (eventLog == null) {
+            return;
+        }
+        try {
+            irrigationLog.setAll(eventLog.readTail(LOG_PANEL_EVENTS));
+        } catch (IOException e) {
+            System.err.println("Could not read the irrigation event log: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
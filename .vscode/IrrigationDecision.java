@@ -1,23 +1,51 @@
+// A decision keeps the rule that fired and the values it was made from; the
+// reason text is only formatted when someone asks for it.
 public class IrrigationDecision {
-    private String decision;
+    private final IrrigationRule rule;
+    private final double soilMoisture;
+    private final double temperature;
+    private final double rainfall;
     private String reason;
-    private double irrigationAmount;
     
-    public IrrigationDecision(String decision, String reason, double irrigationAmount) {
-        this.decision = decision;
-        this.reason = reason;
-        this.irrigationAmount = irrigationAmount;
+    public IrrigationDecision(IrrigationRule rule, double soilMoisture, double temperature, double rainfall) {
+        this.rule = rule;
+        this.soilMoisture = soilMoisture;
+        this.temperature = temperature;
+        this.rainfall = rainfall;
     }
     
-    public String getDecision() {
-        return decision;
+    public IrrigationRule getRule() {
+        return rule;
+    }
+    
+    public DecisionType getDecision() {
+        return rule.getDecision();
     }
     
     public String getReason() {
+        if (reason == null) {
+            reason = rule.formatReason(soilMoisture, temperature, rainfall);
+        }
         return reason;
     }
     
+    public double getThreshold() {
+        return rule.getThreshold();
+    }
+    
     public double getIrrigationAmount() {
-        return irrigationAmount;
+        return rule.getIrrigationAmount();
+    }
+    
+    public double getSoilMoisture() {
+        return soilMoisture;
+    }
+    
+    public double getTemperature() {
+        return temperature;
+    }
+    
+    public double getRainfall() {
+        return rainfall;
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+// A valve action in the irrigation log. Stops and completed cycles carry the
+// water delivered since the matching start, so the log doubles as a record
+// of water usage per zone.
+public final class IrrigationEvent {
+    
+    public enum Action {
+        START("Start"),
+        STOP("Stop"),
+        COMPLETE("Complete"),
+        ERROR("Error");
+        
+        private final String label;
+        
+        Action(String label) {
+            this.label = label;
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+    }
+    
+    private final long timestamp;
+    private final String zone;
+    private final Action action;
+    private final String details;
+    private final double waterLiters;
+    
+    public IrrigationEvent(long timestamp, String zone, Action action, String details, double waterLiters) {
+        this.timestamp = timestamp;
+        this.zone = zone;
+        this.action = action;
+        this.details = details;
+        this.waterLiters = waterLiters;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public String getZone() {
+        return zone;
+    }
+    
+    public Action getAction() {
+        return action;
+    }
+    
+    public String getDetails() {
+        return details;
+    }
+    
+    // Water delivered by the cycle this event ends; 0 for starts and errors
+    public double getWaterLiters() {
+        return waterLiters;
+    }
+}
\ No newline at end of file
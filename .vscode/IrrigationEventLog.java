@@ -0,0 +1,535 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// Append-only log of irrigation events on disk.
+//
+// The log is a directory of segment files (<sequence>.log) of up to
+// SEGMENT_BYTES each; only the newest segment is written to. A record is
+//
+//   length (int) | crc32 of payload (int) | payload | length (int)
+//
+// and the trailing length lets readers walk a segment backwards, so the log
+// panel reads the latest events without scanning the file. On open, a torn
+// record at the end of the newest segment (a crash mid-write) is cut off.
+//
+// append() hands the event to a writer thread and returns at once. The
+// writer takes everything queued since its last write, writes it in one go
+// and forces it to disk once (group commit); the returned future completes
+// when the event is durable.
+//
+// compact() rewrites sealed segments whose events are all older than a
+// cutoff without their START events. Stops, completed cycles and errors,
+// which carry the water delivered, are kept.
+public class IrrigationEventLog implements AutoCloseable {
+    
+    static final int SEGMENT_BYTES = 1 << 20;
+    
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+    private static final int FRAME_BYTES = 12;
+    private static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+    private static final IrrigationEvent.Action[] ACTIONS = IrrigationEvent.Action.values();
+    // Queued by close() after the last append
+    private static final PendingAppend CLOSE = new PendingAppend(null);
+    
+    private final Path directory;
+    // Oldest first; the last one is being written. Guarded by segmentsLock:
+    // readers hold the read lock while they have segment files open.
+    private final List<Segment> segments = new ArrayList<>();
+    private final ReadWriteLock segmentsLock = new ReentrantReadWriteLock();
+    // One compaction at a time
+    private final Object compactionLock = new Object();
+    private final BlockingQueue<PendingAppend> pending = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private FileChannel activeChannel;
+    // Set by the writer when a failed write may have left bytes past the
+    // active segment's durable size
+    private boolean activeDirty;
+    private volatile boolean closed;
+    
+    public IrrigationEventLog(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        
+        List<Long> sequences = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(COMPACTING_SUFFIX)) {
+                    // Left over from an interrupted compaction; the original is intact
+                    Files.delete(file);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    long sequence = parseSequence(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    if (sequence < 0) {
+                        System.err.println("Ignoring " + file + ": not an irrigation event log segment");
+                    } else {
+                        sequences.add(sequence);
+                    }
+                }
+            }
+        }
+        sequences.sort(null);
+        for (long sequence : sequences) {
+            Path path = segmentPath(sequence);
+            segments.add(new Segment(sequence, path, Files.size(path)));
+        }
+        if (segments.isEmpty()) {
+            segments.add(new Segment(0, segmentPath(0), 0));
+        }
+        
+        Segment active = segments.get(segments.size() - 1);
+        activeChannel = FileChannel.open(active.path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long validBytes = scan(activeChannel, event -> { });
+        if (validBytes < activeChannel.size()) {
+            System.err.println("Discarding a torn record at the end of " + active.path);
+            activeChannel.truncate(validBytes);
+            activeChannel.force(true);
+        }
+        active.size = validBytes;
+        activeChannel.position(validBytes);
+        
+        writerThread = new Thread(this::writeLoop, "irrigation-event-log");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    
+    // Queues an event; the future completes once it is on disk
+    public synchronized CompletableFuture<Void> append(IrrigationEvent event) {
+        if (closed) {
+            throw new IllegalStateException("Irrigation event log is closed");
+        }
+        PendingAppend append = new PendingAppend(encode(event));
+        pending.add(append);
+        return append.done;
+    }
+    
+    // The newest count durable events, newest first
+    public List<IrrigationEvent> readTail(int count) throws IOException {
+        List<IrrigationEvent> events = new ArrayList<>(Math.min(count, 1024));
+        segmentsLock.readLock().lock();
+        try {
+            for (int i = segments.size() - 1; i >= 0 && events.size() < count; i--) {
+                Segment segment = segments.get(i);
+                if (segment.size == 0) {
+                    continue;
+                }
+                try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+                    readBackwards(channel, segment.size, count, events);
+                }
+            }
+        } finally {
+            segmentsLock.readLock().unlock();
+        }
+        return events;
+    }
+    
+    // Every durable event, oldest first
+    public void forEach(Consumer<IrrigationEvent> consumer) throws IOException {
+        segmentsLock.readLock().lock();
+        try {
+            for (Segment segment : segments) {
+                try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+                    scan(channel, consumer, segment.size);
+                }
+            }
+        } finally {
+            segmentsLock.readLock().unlock();
+        }
+    }
+    
+    // Drops START events from sealed segments with nothing newer than the
+    // cutoff; returns the bytes reclaimed
+    public long compact(long cutoffMillis) throws IOException {
+        synchronized (compactionLock) {
+            return compactSealed(cutoffMillis);
+        }
+    }
+    
+    private long compactSealed(long cutoffMillis) throws IOException {
+        List<Segment> sealed = new ArrayList<>();
+        segmentsLock.readLock().lock();
+        try {
+            sealed.addAll(segments.subList(0, segments.size() - 1));
+        } finally {
+            segmentsLock.readLock().unlock();
+        }
+        
+        long reclaimed = 0;
+        for (Segment segment : sealed) {
+            List<IrrigationEvent> events = new ArrayList<>();
+            boolean[] eligible = {true};
+            boolean[] hasStarts = {false};
+            long scanned;
+            try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+                scanned = scan(channel, event -> {
+                    eligible[0] &= event.getTimestamp() < cutoffMillis;
+                    if (event.getAction() == IrrigationEvent.Action.START) {
+                        hasStarts[0] = true;
+                    } else {
+                        events.add(event);
+                    }
+                }, segment.size);
+            }
+            if (scanned < segment.size) {
+                // Rewriting would lose every record after the damage
+                System.err.println("Not compacting " + segment.path + ": damaged record at offset " + scanned);
+                continue;
+            }
+            if (!eligible[0] || !hasStarts[0]) {
+                continue;
+            }
+            
+            // Write the survivors next to the segment, then swap them in
+            Path temp = directory.resolve(segment.path.getFileName() + COMPACTING_SUFFIX);
+            long newSize = 0;
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (IrrigationEvent event : events) {
+                    ByteBuffer record = encode(event);
+                    newSize += record.remaining();
+                    writeFully(out, record);
+                }
+                out.force(true);
+            }
+            segmentsLock.writeLock().lock();
+            try {
+                Files.move(temp, segment.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                reclaimed += segment.size - newSize;
+                segment.size = newSize;
+            } finally {
+                segmentsLock.writeLock().unlock();
+            }
+        }
+        return reclaimed;
+    }
+    
+    // Runs compact() on a background thread
+    public CompletableFuture<Long> compactInBackground(long cutoffMillis) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(compact(cutoffMillis));
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, "irrigation-event-compaction");
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+    
+    public int getSegmentCount() {
+        segmentsLock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            segmentsLock.readLock().unlock();
+        }
+    }
+    
+    // Writes out everything queued, then closes the active segment
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.add(CLOSE);
+        }
+        boolean interrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        activeChannel.close();
+    }
+    
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            pending.drainTo(batch);
+            boolean closing = batch.remove(CLOSE);
+            if (!batch.isEmpty()) {
+                commit(batch);
+            }
+            batch.clear();
+            if (closing) {
+                return;
+            }
+        }
+    }
+    
+    // Writes a batch and forces it once, and again before each segment roll;
+    // completes every append in it, failing only those not yet forced
+    private void commit(List<PendingAppend> batch) {
+        // Appends before this index are durable and completed
+        int durable = 0;
+        try {
+            Segment active = activeSegment();
+            if (activeDirty) {
+                discardUnsynced(active);
+            }
+            long size = active.size;
+            for (int i = 0; i < batch.size(); i++) {
+                PendingAppend append = batch.get(i);
+                if (size > 0 && size + append.record.remaining() > SEGMENT_BYTES) {
+                    activeChannel.force(false);
+                    active.size = size;
+                    durable = complete(batch, durable, i);
+                    active = roll(active);
+                    size = 0;
+                }
+                size += append.record.remaining();
+                writeFully(activeChannel, append.record);
+            }
+            activeChannel.force(false);
+            // Readers only look at the synced part of the segment
+            active.size = size;
+            complete(batch, durable, batch.size());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not write irrigation events: " + e.getMessage());
+            for (PendingAppend append : batch.subList(durable, batch.size())) {
+                append.done.completeExceptionally(e);
+            }
+            // Cut off what part of the batch made it to the file, so the next
+            // batch starts right after the last durable record
+            activeDirty = true;
+            try {
+                discardUnsynced(activeSegment());
+            } catch (IOException | RuntimeException retryLater) {
+                System.err.println("Could not roll back irrigation event log, retrying with the next write: "
+                        + retryLater.getMessage());
+            }
+        }
+    }
+    
+    // Completes the appends from..to of a batch; returns to
+    private static int complete(List<PendingAppend> batch, int from, int to) {
+        for (PendingAppend append : batch.subList(from, to)) {
+            append.done.complete(null);
+        }
+        return to;
+    }
+    
+    private Segment activeSegment() {
+        segmentsLock.readLock().lock();
+        try {
+            return segments.get(segments.size() - 1);
+        } finally {
+            segmentsLock.readLock().unlock();
+        }
+    }
+    
+    // Truncates the active segment to its durable size and writes from there
+    private void discardUnsynced(Segment active) throws IOException {
+        activeChannel.truncate(active.size);
+        activeChannel.position(active.size);
+        activeChannel.force(false);
+        activeDirty = false;
+    }
+    
+    private Segment roll(Segment previous) throws IOException {
+        Segment next = new Segment(previous.sequence + 1, segmentPath(previous.sequence + 1), 0);
+        FileChannel channel = FileChannel.open(next.path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segmentsLock.writeLock().lock();
+        try {
+            segments.add(next);
+        } finally {
+            segmentsLock.writeLock().unlock();
+        }
+        activeChannel.close();
+        activeChannel = channel;
+        return next;
+    }
+    
+    // The sequence number of a segment file name, or -1 if it is not one
+    private static long parseSequence(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) < '0' || name.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        try {
+            return Long.parseLong(name);
+        } catch (NumberFormatException e) {
+            return -1; // Empty or too long
+        }
+    }
+    
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%020d", sequence) + SEGMENT_SUFFIX);
+    }
+    
+    // Reads records from the start of a channel until the end or the first
+    // damaged record; returns the bytes of intact records
+    private static long scan(FileChannel channel, Consumer<IrrigationEvent> consumer) throws IOException {
+        return scan(channel, consumer, channel.size());
+    }
+    
+    private static long scan(FileChannel channel, Consumer<IrrigationEvent> consumer, long limit) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(8);
+        long position = 0;
+        while (position + FRAME_BYTES <= limit) {
+            header.clear();
+            readFully(channel, header, position);
+            int length = header.getInt(0);
+            int crc = header.getInt(4);
+            if (length < 0 || length > MAX_PAYLOAD_BYTES || position + FRAME_BYTES + length > limit) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length + 4);
+            readFully(channel, body, position + 8);
+            if (body.getInt(length) != length || checksum(body, length) != crc) {
+                break;
+            }
+            body.limit(length);
+            consumer.accept(decode(body));
+            position += FRAME_BYTES + length;
+        }
+        return position;
+    }
+    
+    // Adds events ending at end to events, newest first, until it holds count
+    private static void readBackwards(FileChannel channel, long end, int count, List<IrrigationEvent> events)
+            throws IOException {
+        ByteBuffer trailer = ByteBuffer.allocate(4);
+        long position = end;
+        while (position >= FRAME_BYTES && events.size() < count) {
+            trailer.clear();
+            readFully(channel, trailer, position - 4);
+            int length = trailer.getInt(0);
+            long start = position - FRAME_BYTES - length;
+            if (length < 0 || length > MAX_PAYLOAD_BYTES || start < 0) {
+                throw new IOException("Corrupt irrigation event log near offset " + position);
+            }
+            ByteBuffer record = ByteBuffer.allocate(length + 8);
+            readFully(channel, record, start);
+            ByteBuffer payload = record.duplicate();
+            payload.position(8);
+            if (checksum(payload, length) != record.getInt(4)) {
+                throw new IOException("Corrupt irrigation event log near offset " + start);
+            }
+            payload.position(8).limit(8 + length);
+            events.add(decode(payload));
+            position = start;
+        }
+    }
+    
+    // Payload: timestamp, action, water liters, zone, details
+    static ByteBuffer encode(IrrigationEvent event) {
+        byte[] zone = event.getZone().getBytes(StandardCharsets.UTF_8);
+        byte[] details = event.getDetails().getBytes(StandardCharsets.UTF_8);
+        int length = 8 + 1 + 8 + 2 + zone.length + 2 + details.length;
+        if (zone.length > 0xFFFF || details.length > 0xFFFF || length > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Irrigation event text too long");
+        }
+        ByteBuffer record = ByteBuffer.allocate(FRAME_BYTES + length);
+        record.putInt(length);
+        record.putInt(0);
+        record.putLong(event.getTimestamp());
+        record.put((byte) event.getAction().ordinal());
+        record.putDouble(event.getWaterLiters());
+        record.putShort((short) zone.length);
+        record.put(zone);
+        record.putShort((short) details.length);
+        record.put(details);
+        record.putInt(length);
+        
+        ByteBuffer payload = record.duplicate();
+        payload.position(8);
+        record.putInt(4, checksum(payload, length));
+        record.flip();
+        return record;
+    }
+    
+    private static IrrigationEvent decode(ByteBuffer payload) {
+        long timestamp = payload.getLong();
+        IrrigationEvent.Action action = ACTIONS[payload.get()];
+        double waterLiters = payload.getDouble();
+        String zone = readString(payload);
+        String details = readString(payload);
+        return new IrrigationEvent(timestamp, zone, action, details, waterLiters);
+    }
+    
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    // CRC of length bytes from the buffer's position; leaves the position alone
+    private static int checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(slice.position() + length);
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+    
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of irrigation event log");
+            }
+        }
+        buffer.flip();
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    private static final class Segment {
+        final long sequence;
+        final Path path;
+        // Bytes of durable records
+        volatile long size;
+        
+        Segment(long sequence, Path path, long size) {
+            this.sequence = sequence;
+            this.path = path;
+            this.size = size;
+        }
+    }
+    
+    private static final class PendingAppend {
+        final ByteBuffer record;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        
+        PendingAppend(ByteBuffer record) {
+            this.record = record;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+// The branch of the irrigation decision logic that fired for a reading.
+// Each rule knows its decision type and irrigation amount up front, so
+// only the human-readable reason depends on the reading values.
+public enum IrrigationRule {
+    RECENT_RAINFALL(DecisionType.DO_NOT_IRRIGATE, SensorSimulator.RAINFALL_THRESHOLD, 0.0, false),
+    CRITICAL_MOISTURE_HIGH_TEMPERATURE(DecisionType.IRRIGATE_IMMEDIATELY, SensorSimulator.MOISTURE_LOW_THRESHOLD, 80.0, true),
+    CRITICAL_MOISTURE_LOW_TEMPERATURE(DecisionType.IRRIGATE_IMMEDIATELY, SensorSimulator.MOISTURE_LOW_THRESHOLD, 50.0, false),
+    CRITICAL_MOISTURE(DecisionType.IRRIGATE_IMMEDIATELY, SensorSimulator.MOISTURE_LOW_THRESHOLD, 65.0, false),
+    LOW_MOISTURE_HIGH_TEMPERATURE(DecisionType.IRRIGATE_SOON, SensorSimulator.MOISTURE_MEDIUM_THRESHOLD, 60.0, true),
+    LOW_MOISTURE(DecisionType.IRRIGATE_SOON, SensorSimulator.MOISTURE_MEDIUM_THRESHOLD, 40.0, false),
+    ADEQUATE_MOISTURE(DecisionType.MONITOR, SensorSimulator.MOISTURE_MEDIUM_THRESHOLD, 0.0, false),
+    HIGH_MOISTURE(DecisionType.DO_NOT_IRRIGATE, SensorSimulator.MOISTURE_HIGH_THRESHOLD, 0.0, false);
+    
+    private static final IrrigationRule[] VALUES = values();
+    
+    private final DecisionType decision;
+    private final double threshold;
+    private final double irrigationAmount;
+    
+    IrrigationRule(DecisionType decision, double threshold, double baseAmount, boolean highTemperature) {
+        this.decision = decision;
+        this.threshold = threshold;
+        
+        // Increase irrigation by 20% for high temperatures, capped at 100%
+        double amount = baseAmount;
+        if (highTemperature && amount > 0) {
+            amount *= 1.2;
+            amount = Math.min(amount, 100.0);
+        }
+        this.irrigationAmount = amount;
+    }
+    
+    public static IrrigationRule fromCode(int code) {
+        return VALUES[code];
+    }
+    
+    public int getCode() {
+        return ordinal();
+    }
+    
+    public DecisionType getDecision() {
+        return decision;
+    }
+    
+    // The rainfall or soil moisture threshold that made this rule fire
+    public double getThreshold() {
+        return threshold;
+    }
+    
+    public double getIrrigationAmount() {
+        return irrigationAmount;
+    }
+    
+    public String formatReason(double soilMoisture, double temperature, double rainfall) {
+        switch (this) {
+            case RECENT_RAINFALL:
+                return String.format("Recent rainfall of %.1fmm exceeds threshold (%.1fmm)",
+                                     rainfall, SensorSimulator.RAINFALL_THRESHOLD);
+            case CRITICAL_MOISTURE_HIGH_TEMPERATURE:
+                return criticalMoisture(soilMoisture) + " and high temperature";
+            case CRITICAL_MOISTURE_LOW_TEMPERATURE:
+                return criticalMoisture(soilMoisture) + " with low temperature";
+            case CRITICAL_MOISTURE:
+                return criticalMoisture(soilMoisture);
+            case LOW_MOISTURE_HIGH_TEMPERATURE:
+                return lowMoisture(soilMoisture) + " with high temperature";
+            case LOW_MOISTURE:
+                return lowMoisture(soilMoisture);
+            case ADEQUATE_MOISTURE:
+                return String.format("Soil moisture adequate at %.1f%% (between %.1f%% and %.1f%%)",
+                                     soilMoisture, SensorSimulator.MOISTURE_MEDIUM_THRESHOLD,
+                                     SensorSimulator.MOISTURE_HIGH_THRESHOLD);
+            default:
+                return String.format("Soil moisture high at %.1f%% (above %.1f%%)",
+                                     soilMoisture, SensorSimulator.MOISTURE_HIGH_THRESHOLD);
+        }
+    }
+    
+    private static String criticalMoisture(double soilMoisture) {
+        return String.format("Soil moisture critically low at %.1f%% (below %.1f%%)",
+                             soilMoisture, SensorSimulator.MOISTURE_LOW_THRESHOLD);
+    }
+    
+    private static String lowMoisture(double soilMoisture) {
+        return String.format("Soil moisture low at %.1f%% (below %.1f%%)",
+                             soilMoisture, SensorSimulator.MOISTURE_MEDIUM_THRESHOLD);
+    }
+}
\ No newline at end of file
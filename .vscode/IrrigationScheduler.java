@@ -0,0 +1,200 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Runs irrigation cycles for any number of zones at once, independent of
+// the UI. A cycle ends when its duration is up or when stop() is called;
+// durations are measured with System.nanoTime, so changes to the wall clock
+// don't stretch or cut short a cycle. Cycle ends are timers on a TimingWheel
+// with a 1 ms tick, so thousands of valves cost one thread.
+//
+// Every start, stop and completed cycle is reported to the listeners as an
+// IrrigationEvent, on the thread that caused it (the caller of start/stop,
+// or the timer thread for completions). A zone's events arrive in order.
+public class IrrigationScheduler implements AutoCloseable {
+    
+    public interface Listener {
+        void onEvent(IrrigationEvent event);
+    }
+    
+    // A running cycle
+    public static final class ZoneRun {
+        private final String zone;
+        private final double flowRate;
+        private final long durationNanos;
+        private final long startNanos;
+        private TimingWheel.Timeout completion;
+        
+        ZoneRun(String zone, double flowRate, long durationNanos, long startNanos) {
+            this.zone = zone;
+            this.flowRate = flowRate;
+            this.durationNanos = durationNanos;
+            this.startNanos = startNanos;
+        }
+        
+        public String getZone() {
+            return zone;
+        }
+        
+        // Litres per minute
+        public double getFlowRate() {
+            return flowRate;
+        }
+        
+        public long getDurationMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        }
+        
+        public long getRemainingMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(Math.max(0, durationNanos - (System.nanoTime() - startNanos)));
+        }
+        
+        // Fraction of the cycle done, 0 to 1
+        public double getProgress() {
+            return Math.min(1.0, (double) (System.nanoTime() - startNanos) / durationNanos);
+        }
+        
+        double waterLitersAt(long nanos) {
+            return flowRate * Math.min(nanos - startNanos, durationNanos) / TimeUnit.MINUTES.toNanos(1);
+        }
+    }
+    
+    private final TimingWheel timers = new TimingWheel(1, TimeUnit.MILLISECONDS, "irrigation-scheduler");
+    private final ConcurrentHashMap<String, ZoneRun> running = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Set<TimingWheel.Timeout> plannedStarts = ConcurrentHashMap.newKeySet();
+    
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+    
+    // Starts a cycle; returns false if the zone is already running
+    public boolean start(String zone, double flowRate, long duration, TimeUnit unit) {
+        long durationNanos = unit.toNanos(duration);
+        if (flowRate <= 0 || durationNanos <= 0) {
+            throw new IllegalArgumentException("Flow rate and duration must be positive");
+        }
+        ZoneRun run = new ZoneRun(zone, flowRate, durationNanos, System.nanoTime());
+        // Held until the start is reported, so a racing stop() reports after it
+        synchronized (run) {
+            if (running.putIfAbsent(zone, run) != null) {
+                return false;
+            }
+            notifyListeners(new IrrigationEvent(System.currentTimeMillis(), zone, IrrigationEvent.Action.START,
+                    String.format("%.0f L/min, %s", flowRate, formatDuration(durationNanos)), 0));
+            // Unless a listener already stopped it; counted from the start, so
+            // slow listeners don't lengthen the cycle past what a plan allows
+            if (running.get(zone) == run) {
+                long remainingNanos = Math.max(0, durationNanos - (System.nanoTime() - run.startNanos));
+                run.completion = timers.schedule(() -> complete(run), remainingNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        return true;
+    }
+    
+    // Stops a zone's cycle early; returns false if it wasn't running
+    public boolean stop(String zone, String reason) {
+        ZoneRun run = running.get(zone);
+        if (run == null || !running.remove(zone, run)) {
+            return false;
+        }
+        synchronized (run) {
+            if (run.completion != null) {
+                run.completion.cancel();
+            }
+            double waterLiters = run.waterLitersAt(System.nanoTime());
+            notifyListeners(new IrrigationEvent(System.currentTimeMillis(), zone, IrrigationEvent.Action.STOP,
+                    String.format("%s, %.0f L", reason, waterLiters), waterLiters));
+        }
+        return true;
+    }
+    
+    // Starts each zone of a plan at its slot, counting from now. A zone that
+    // is still running when its slot comes is reported as an error and skipped.
+    public void runPlan(FlowCapacityPlanner.Plan plan) {
+        plannedStarts.removeIf(TimingWheel.Timeout::isExpired);
+        for (FlowCapacityPlanner.Slot slot : plan.getSlots()) {
+            plannedStarts.add(timers.schedule(() -> startPlanned(slot), slot.getStartMillis(), TimeUnit.MILLISECONDS));
+        }
+    }
+    
+    // Drops the planned starts that haven't happened yet
+    public void cancelPlannedStarts() {
+        for (TimingWheel.Timeout timeout : plannedStarts) {
+            timeout.cancel();
+            plannedStarts.remove(timeout);
+        }
+    }
+    
+    // Planned starts still to come
+    public int getPlannedStartCount() {
+        plannedStarts.removeIf(TimingWheel.Timeout::isExpired);
+        return plannedStarts.size();
+    }
+    
+    // The zone's running cycle, or null if it is idle
+    public ZoneRun getRun(String zone) {
+        return running.get(zone);
+    }
+    
+    public List<ZoneRun> getRunningZones() {
+        return new ArrayList<>(running.values());
+    }
+    
+    // Stops every running zone, then the timer thread
+    @Override
+    public void close() {
+        cancelPlannedStarts();
+        for (String zone : new ArrayList<>(running.keySet())) {
+            stop(zone, "Stopped at shutdown");
+        }
+        timers.close();
+    }
+    
+    private void startPlanned(FlowCapacityPlanner.Slot slot) {
+        if (!start(slot.getZone(), slot.getFlowRate(), slot.getDurationMillis(), TimeUnit.MILLISECONDS)) {
+            notifyListeners(new IrrigationEvent(System.currentTimeMillis(), slot.getZone(), IrrigationEvent.Action.ERROR,
+                    "Planned start skipped, zone already running", 0));
+        }
+    }
+    
+    // Seconds below a minute, so short cycles aren't reported as "0 min"
+    private static String formatDuration(long durationNanos) {
+        double seconds = durationNanos / 1e9;
+        if (seconds < 10) {
+            return String.format("%.1f s", seconds);
+        }
+        if (seconds < 59.5) {
+            return String.format("%.0f s", seconds);
+        }
+        return String.format("%.1f min", seconds / 60);
+    }
+    
+    private void complete(ZoneRun run) {
+        if (!running.remove(run.zone, run)) {
+            return;
+        }
+        synchronized (run) {
+            double waterLiters = run.waterLitersAt(run.startNanos + run.durationNanos);
+            notifyListeners(new IrrigationEvent(System.currentTimeMillis(), run.zone, IrrigationEvent.Action.COMPLETE,
+                    String.format("Full cycle completed, %.0f L", waterLiters), waterLiters));
+        }
+    }
+    
+    private void notifyListeners(IrrigationEvent event) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                System.err.println("Irrigation listener failed: " + e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
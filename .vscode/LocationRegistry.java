@@ -0,0 +1,99 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Assigns compact int ids to sensor location names. Readings store the id,
+// so millions of retained readings share one copy of each name, and
+// per-location data can live in arrays indexed by id instead of maps keyed
+// on long strings. Ids are dense, start at 0 and never change while the
+// application runs; the default field locations always get ids 0-3.
+//
+// Names come from probe input, so registration is bounded: a name must be
+// 1-64 printable characters and at most MAX_LOCATIONS names are kept.
+// Anything else is rejected with IllegalArgumentException, which the
+// reading sources count as a bad line, instead of growing the registry
+// without limit.
+public final class LocationRegistry {
+    
+    private static final List<String> DEFAULT_LOCATIONS = Collections.unmodifiableList(Arrays.asList(
+        "Field A - North",
+        "Field A - South",
+        "Field B - East",
+        "Field B - West"
+    ));
+    
+    public static final int MAX_LOCATIONS = 4096;
+    private static final int MAX_NAME_LENGTH = 64;
+    
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[16];
+    private static int count;
+    
+    static {
+        for (String location : DEFAULT_LOCATIONS) {
+            idOf(location);
+        }
+    }
+    
+    private LocationRegistry() {
+    }
+    
+    // The field locations offered in the location dropdowns
+    public static List<String> defaultLocations() {
+        return DEFAULT_LOCATIONS;
+    }
+    
+    // Returns the id for a location, registering it on first use; throws
+    // IllegalArgumentException for an invalid name or a full registry
+    public static int idOf(String location) {
+        Integer id = IDS.get(location);
+        return id != null ? id : register(location);
+    }
+    
+    public static String nameOf(int id) {
+        String[] current = names;
+        if (id < 0 || id >= current.length || current[id] == null) {
+            throw new IllegalArgumentException("Unknown location id: " + id);
+        }
+        return current[id];
+    }
+    
+    // Number of registered locations; valid ids are 0 to size() - 1
+    public static synchronized int size() {
+        return count;
+    }
+    
+    private static synchronized int register(String location) {
+        Integer existing = IDS.get(location);
+        if (existing != null) {
+            return existing;
+        }
+        checkName(location);
+        if (count == MAX_LOCATIONS) {
+            throw new IllegalArgumentException("Too many sensor locations, not registering " + location);
+        }
+        
+        String[] current = names;
+        if (count == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[count] = location;
+        // Publish the name before the id so nameOf always finds it
+        names = current;
+        IDS.put(location, count);
+        return count++;
+    }
+    
+    private static void checkName(String location) {
+        if (location == null || location.isEmpty() || location.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Location name must be 1-" + MAX_NAME_LENGTH + " characters");
+        }
+        for (int i = 0; i < location.length(); i++) {
+            if (Character.isISOControl(location.charAt(i))) {
+                throw new IllegalArgumentException("Location name contains control characters");
+            }
+        }
+    }
+}
\ No newline at end of file
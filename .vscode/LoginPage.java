@@ -1,3 +1,4 @@
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
@@ -10,34 +11,29 @@ import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 public class LoginPage {
     
     private static final String PRIMARY_COLOR = "#1A5F7A";
     private static final String SECONDARY_COLOR = "#2E8B57";
     private static final String ACCENT_COLOR = "#FF6347";
-    private static final String BACKGROUND_COLOR = "#F8F9FA";
     
     private MainApp mainApp;
     private Stage primaryStage;
     
-    // Database connection parameters
-    private static final String DB_URL = "jdbc:mysql://localhost:3308/agritech";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "1109"; // MySQL root password
-    
     // UI components
     private TextField usernameField;
     private PasswordField passwordField;
     private Text statusText;
     private Button loginButton;
+    private ProgressIndicator loginProgress;
+    private Hyperlink cancelLink;
     private CheckBox rememberMeCheckBox;
     
+    // The login waiting for the database, if any
+    private CompletableFuture<LoginResult> pendingLogin;
+    
     public LoginPage(Stage stage, MainApp mainApp) {
         this.primaryStage = stage;
         this.mainApp = mainApp;
@@ -45,14 +41,14 @@ public class LoginPage {
     
     public Scene createLoginScene() {
         BorderPane root = new BorderPane();
-        root.setStyle("-fx-background-color: " + BACKGROUND_COLOR + ";");
+        root.getStyleClass().add("page");
         
         // Center - Login Form
         VBox loginForm = createLoginForm();
         root.setCenter(loginForm);
         
         // Scene setup
-        Scene scene = new Scene(root, 900, 600);
+        Scene scene = Styles.apply(new Scene(root, 900, 600));
         return scene;
     }
     
@@ -62,11 +58,7 @@ public class LoginPage {
         loginForm.setPadding(new Insets(50));
         loginForm.setMaxWidth(450);
         loginForm.setMaxHeight(500);
-        loginForm.setStyle(
-            "-fx-background-color: white;" +
-            "-fx-background-radius: 10;" +
-            "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.2), 15, 0, 0, 5);"
-        );
+        loginForm.getStyleClass().add("login-form");
         
         // Logo and title
         Text title = new Text("AgriTech Smart Irrigation");
@@ -83,12 +75,7 @@ public class LoginPage {
         usernameField = new TextField();
         usernameField.setPromptText("Enter your username");
         usernameField.setPrefHeight(40);
-        usernameField.setStyle(
-            "-fx-background-color: #F8F9FA;" +
-            "-fx-border-color: #CED4DA;" +
-            "-fx-border-radius: 5;" +
-            "-fx-padding: 5 10;"
-        );
+        usernameField.getStyleClass().add("form-field");
         
         // Password field
         Label passwordLabel = new Label("Password");
@@ -96,12 +83,7 @@ public class LoginPage {
         passwordField = new PasswordField();
         passwordField.setPromptText("Enter your password");
         passwordField.setPrefHeight(40);
-        passwordField.setStyle(
-            "-fx-background-color: #F8F9FA;" +
-            "-fx-border-color: #CED4DA;" +
-            "-fx-border-radius: 5;" +
-            "-fx-padding: 5 10;"
-        );
+        passwordField.getStyleClass().add("form-field");
         
         // Enter key for password field
         passwordField.setOnAction(e -> attemptLogin());
@@ -124,13 +106,24 @@ public class LoginPage {
         loginButton.setPrefHeight(40);
         loginButton.setPrefWidth(150);
         loginButton.setFont(Font.font("Arial", FontWeight.BOLD, 14));
-        loginButton.setStyle(
-            "-fx-background-color: " + PRIMARY_COLOR + ";" +
-            "-fx-text-fill: white;" +
-            "-fx-background-radius: 5;"
-        );
+        loginButton.getStyleClass().add("login-button");
         loginButton.setOnAction(e -> attemptLogin());
         
+        // Shown while the credentials are being checked
+        loginProgress = new ProgressIndicator();
+        loginProgress.setPrefSize(24, 24);
+        loginProgress.setVisible(false);
+        
+        cancelLink = new Hyperlink("Cancel");
+        cancelLink.setFont(Font.font("Arial", 14));
+        cancelLink.setTextFill(Color.web(PRIMARY_COLOR));
+        cancelLink.setVisible(false);
+        cancelLink.setOnAction(e -> cancelLogin());
+        
+        HBox loginBox = new HBox(10);
+        loginBox.setAlignment(Pos.CENTER_LEFT);
+        loginBox.getChildren().addAll(loginButton, loginProgress, cancelLink);
+        
         // Register option
         HBox registerBox = new HBox(5);
         registerBox.setAlignment(Pos.CENTER);
@@ -156,7 +149,7 @@ public class LoginPage {
             passwordLabel,
             passwordField,
             optionsBox,
-            loginButton,
+            loginBox,
             statusText,
             new Separator(),
             registerBox
@@ -169,6 +162,9 @@ public class LoginPage {
     }
     
     private void attemptLogin() {
+        if (pendingLogin != null) {
+            return;
+        }
         String username = usernameField.getText().trim();
         String password = passwordField.getText().trim();
         
@@ -178,130 +174,51 @@ public class LoginPage {
             return;
         }
         
-        // Attempt database authentication
-        if (authenticateUser(username, password)) {
-            // Login successful
-            mainApp.setLoggedInUser(username);
-            mainApp.showWelcomeScreen();
-        } else {
-            // Login failed
-            statusText.setText("Invalid username or password");
-            passwordField.clear();
-        }
+        // Check the credentials in the background and come back to the FX thread with the result
+        setLoginInProgress(true);
+        statusText.setText("Signing in...");
+        CompletableFuture<LoginResult> login = mainApp.getAuthenticationService().login(username, password);
+        pendingLogin = login;
+        login.whenComplete((result, error) -> Platform.runLater(() -> finishLogin(login, username, result, error)));
     }
     
-    private boolean authenticateUser(String username, String password) {
-        // For demo purposes, allow admin/admin to bypass database check
-        if (username.equals("admin") && password.equals("admin")) {
-            return true;
+    private void finishLogin(CompletableFuture<LoginResult> login, String username, LoginResult result, Throwable error) {
+        if (login != pendingLogin) {
+            return; // Cancelled
         }
+        pendingLogin = null;
+        setLoginInProgress(false);
         
-        try {
-            // Try to connect to the database
-            try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-                // Prepare SQL statement
-                String sql = "SELECT * FROM users WHERE username = ? AND password = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    stmt.setString(1, username);
-                    stmt.setString(2, password); // In a real application, passwords should be hashed
-                    
-                    // Execute query
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        // If we found a matching user, authentication is successful
-                        if (rs.next()) {
-                            return true;
-                        }
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            // Log the error
-            System.err.println("Database authentication error: " + e.getMessage());
-            
-            // For demo purposes, show a more user-friendly message
-            statusText.setText("Database connection error. Please try again.");
-            
-            // Since this is a demo, allow fallback to dummy authentication
-            // In a real application, you would handle this differently
-            if (username.equals("user") && password.equals("password")) {
-                return true;
-            }
+        if (result == LoginResult.SUCCESS) {
+            statusText.setText("");
+            mainApp.setLoggedInUser(username);
+            mainApp.showWelcomeScreen();
+            return;
         }
         
-        // If we get here, authentication failed
-        return false;
+        // Login failed
+        if (error != null) {
+            System.err.println("Login failed: " + error);
+        }
+        statusText.setText(result != null ? result.getMessage() : LoginResult.DATABASE_ERROR.getMessage());
+        passwordField.clear();
     }
     
-    public static void initializeDatabase() {
-        // This method would be called once to set up the database
-        try {
-            // Load JDBC driver
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            
-            // Create the database and table if they don't exist
-            try (Connection conn = DriverManager.getConnection(
-                    "jdbc:mysql://localhost:3308/", DB_USER, DB_PASSWORD)) {
-                
-                // Create database if it doesn't exist
-                try (PreparedStatement stmt = conn.prepareStatement("CREATE DATABASE IF NOT EXISTS agritech")) {
-                    stmt.execute();
-                }
-                
-                // Switch to the database
-                try (Connection dbConn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-                    // Create users table if it doesn't exist
-                    String createTableSQL = 
-                            "CREATE TABLE IF NOT EXISTS users (" +
-                            "id INT AUTO_INCREMENT PRIMARY KEY, " +
-                            "username VARCHAR(50) NOT NULL UNIQUE, " +
-                            "password VARCHAR(50) NOT NULL, " +
-                            "name VARCHAR(100), " +
-                            "email VARCHAR(100), " +
-                            "role VARCHAR(20) DEFAULT 'user', " +
-                            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                            ")";
-                    
-                    try (PreparedStatement stmt = dbConn.prepareStatement(createTableSQL)) {
-                        stmt.execute();
-                    }
-                    
-                    // Check if we need to insert default users
-                    String checkUserSQL = "SELECT COUNT(*) FROM users";
-                    try (PreparedStatement stmt = dbConn.prepareStatement(checkUserSQL);
-                         ResultSet rs = stmt.executeQuery()) {
-                        if (rs.next() && rs.getInt(1) == 0) {
-                            // Insert default admin user
-                            String insertUserSQL = 
-                                    "INSERT INTO users (username, password, name, email, role) " +
-                                    "VALUES (?, ?, ?, ?, ?)";
-                            
-                            try (PreparedStatement insertStmt = dbConn.prepareStatement(insertUserSQL)) {
-                                // Admin user
-                                insertStmt.setString(1, "admin");
-                                insertStmt.setString(2, "admin123"); // In real app, use hashed password
-                                insertStmt.setString(3, "Administrator");
-                                insertStmt.setString(4, "admin@agritech.com");
-                                insertStmt.setString(5, "admin");
-                                insertStmt.executeUpdate();
-                                
-                                // Regular user
-                                insertStmt.setString(1, "user");
-                                insertStmt.setString(2, "password"); // In real app, use hashed password
-                                insertStmt.setString(3, "Test User");
-                                insertStmt.setString(4, "user@agritech.com");
-                                insertStmt.setString(5, "user");
-                                insertStmt.executeUpdate();
-                            }
-                        }
-                    }
-                }
-            }
-            
-            System.out.println("Database initialization completed successfully");
-        } catch (ClassNotFoundException e) {
-            System.err.println("MySQL JDBC Driver not found: " + e.getMessage());
-        } catch (SQLException e) {
-            System.err.println("Database initialization error: " + e.getMessage());
+    private void cancelLogin() {
+        if (pendingLogin == null) {
+            return;
         }
+        pendingLogin.cancel(false);
+        pendingLogin = null;
+        setLoginInProgress(false);
+        statusText.setText("Login cancelled");
+    }
+    
+    private void setLoginInProgress(boolean inProgress) {
+        usernameField.setDisable(inProgress);
+        passwordField.setDisable(inProgress);
+        loginButton.setDisable(inProgress);
+        loginProgress.setVisible(inProgress);
+        cancelLink.setVisible(inProgress);
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+// Outcome of a login attempt
+public enum LoginResult {
+    SUCCESS("Login successful"),
+    INVALID_CREDENTIALS("Invalid username or password"),
+    DATABASE_ERROR("Database connection error. Please try again."),
+    TIMED_OUT("The server took too long to respond. Please try again.");
+    
+    private final String message;
+    
+    LoginResult(String message) {
+        this.message = message;
+    }
+    
+    // Text shown on the login form
+    public String getMessage() {
+        return message;
+    }
+}
\ No newline at end of file
@@ -7,6 +7,13 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.PreparedStatement;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 // JavaFX imports
 import javafx.scene.Parent;
@@ -27,24 +34,164 @@ import javafx.geometry.*;
 
 public class MainApp extends Application {
     
+    private static final long LOGIN_TIMEOUT_MILLIS = 10_000;
+    // Readings are saved to the database in batches of up to this many rows,
+    // at least once a second
+    private static final int READING_BATCH_SIZE = 500;
+    private static final long READING_FLUSH_MILLIS = 1_000;
+    private static final int READING_QUEUE_CAPACITY = 50_000;
+    // Decision threads and readings buffered per thread for the probes
+    private static final int PROBE_WORKERS = 2;
+    private static final int PROBE_QUEUE_CAPACITY = 8192;
+    // Irrigation starts older than this are compacted out of the event log
+    private static final long EVENT_DETAIL_MILLIS = TimeUnit.DAYS.toMillis(90);
+    // Auto mode valves: flow in L/min, minutes for an irrigation amount of
+    // 100%, and minutes a zone rests between cycles
+    private static final double AUTO_FLOW_RATE = 50;
+    private static final long AUTO_FULL_CYCLE_MINUTES = 30;
+    private static final long AUTO_REST_MINUTES = 30;
+    // Total flow in L/min the shared pump can feed, e.g. two zones at once in
+    // Auto mode
+    private static final double SUPPLY_FLOW_CAPACITY = 100;
+    
     private Stage primaryStage;
     private String loggedInUser; // Track the logged-in user
+    private ConnectionPool dataSource;
+    private AuthenticationService authenticationService;
+    private SensorHistoryStore historyStore;
+    private SensorRollups rollups;
+    private SensorReadingWriter readingWriter;
+    private SensorIngestPipeline probePipeline;
+    private SocketReadingSource probeSource;
+    private IrrigationEventLog eventLog;
+    private IrrigationScheduler irrigationScheduler;
+    private AutoIrrigationController autoIrrigation;
+    private final FlowCapacityPlanner flowPlanner = new FlowCapacityPlanner(SUPPLY_FLOW_CAPACITY);
+    // Only with -Dagritech.startupProfile=true
+    private final StartupProfiler profiler = Boolean.getBoolean("agritech.startupProfile")
+            ? new StartupProfiler(Paths.get("data", "startup-profile.csv")) : StartupProfiler.disabled();
+    // Pages of the logged-in session, built once each
+    private final PageCache pages = new PageCache(1000, 800, profiler);
+    // Carries live values to the pages' widgets once per frame
+    private final UiUpdateBus uiUpdates = new UiUpdateBus();
+    private final List<Consumer<SensorReading>> readingListeners = new CopyOnWriteArrayList<>();
     
     @Override
     public void start(Stage primaryStage) {
         this.primaryStage = primaryStage;
+        profiler.recordSinceStart("application start");
         primaryStage.setTitle("AgriTech Smart Irrigation System");
+        if (Boolean.getBoolean("agritech.pulseTiming")) {
+            PulseTimer pulseTimer = new PulseTimer();
+            primaryStage.sceneProperty().addListener((obs, oldScene, newScene) -> pulseTimer.attach(newScene));
+        }
         
-        // Initialize database (only needed once)
+        // Bring the database schema up to date in the background so the login
+        // page shows at once; logins wait for it, and run it again if it failed
+        dataSource = new ConnectionPool(DatabaseConfig.fromSystemProperties());
+        PasswordHasher passwordHasher = new PasswordHasher();
+        SchemaMigrator migrator = new SchemaMigrator(dataSource, SchemaMigrator.applicationMigrations(passwordHasher));
+        authenticationService = new AuthenticationService(new UserRepository(dataSource), passwordHasher,
+                () -> migrator.migrateInBackground().whenComplete((version, error) -> {
+                    if (error != null) {
+                        // Continue with the application even if DB fails
+                        System.err.println("Database initialization failed: " + error.getMessage());
+                    } else {
+                        System.out.println("Database schema is at version " + version);
+                    }
+                }), LOGIN_TIMEOUT_MILLIS);
+        
+        // Open the sensor history, keeping it in memory if the data directory is unusable
         try {
-            LoginPage.initializeDatabase();
-        } catch (Exception e) {
-            System.err.println("Database initialization failed: " + e.getMessage());
-            // Continue with the application even if DB fails
+            historyStore = new SensorHistoryStore(Paths.get("data", "history"));
+        } catch (IOException e) {
+            System.err.println("Sensor history unavailable, keeping it in memory: " + e.getMessage());
+            historyStore = SensorHistoryStore.inMemory();
+        }
+        // Charts show what is loaded so far until the last 31 days are read in
+        rollups = new SensorRollups(historyStore);
+        rollups.backfillInBackground();
+        
+        // Open the irrigation event log; without it the control page keeps events in memory
+        try {
+            eventLog = new IrrigationEventLog(Paths.get("data", "irrigation-events"));
+            eventLog.compactInBackground(System.currentTimeMillis() - EVENT_DETAIL_MILLIS)
+                    .whenComplete((reclaimed, error) -> {
+                        if (error != null) {
+                            System.err.println("Irrigation event log compaction failed: " + error.getMessage());
+                        }
+                    });
+        } catch (IOException e) {
+            System.err.println("Irrigation event log unavailable: " + e.getMessage());
+        }
+        
+        // Irrigation cycles keep running while the user moves between pages
+        irrigationScheduler = new IrrigationScheduler();
+        if (eventLog != null) {
+            IrrigationEventLog log = eventLog;
+            irrigationScheduler.addListener(event -> log.append(event).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    System.err.println("Irrigation event not saved: " + error.getMessage());
+                }
+            }));
+        }
+        
+        autoIrrigation = new AutoIrrigationController(irrigationScheduler, MainApp::zoneOf, AUTO_FLOW_RATE,
+                AUTO_FULL_CYCLE_MINUTES, AUTO_REST_MINUTES, TimeUnit.MINUTES);
+        
+        // Field probes send their readings to this port on localhost
+        Integer probePort = Integer.getInteger("agritech.probePort");
+        if (probePort != null) {
+            startProbeIngest(probePort);
         }
         
+        pages.register(DashBoard.class, () -> new DashBoard(this));
+        pages.register(IrrigationControlPage.class, () -> new IrrigationControlPage(this));
+        pages.register(SoilMoisturePage.class, () -> new SoilMoisturePage(this));
+        pages.register(SensorSimulationPage.class, () -> new SensorSimulationPage(this));
+        pages.register(OverviewPage.class, OverviewPage::new);
+        
         // Show login page instead of welcome screen
         showLoginPage();
+        profiler.recordFirstFrame(primaryStage.getScene(), "first frame");
+    }
+    
+    @Override
+    public void stop() {
+        // No more readings once the probes are cut off
+        if (probeSource != null) {
+            try {
+                probeSource.close();
+            } catch (IOException e) {
+                System.err.println("Could not close probe port: " + e.getMessage());
+            }
+        }
+        if (probePipeline != null) {
+            probePipeline.close();
+        }
+        // Stops running cycles first so their water use reaches the event log
+        if (irrigationScheduler != null) {
+            irrigationScheduler.close();
+        }
+        if (historyStore != null) {
+            historyStore.close();
+        }
+        if (eventLog != null) {
+            try {
+                eventLog.close();
+            } catch (IOException e) {
+                System.err.println("Could not close irrigation event log: " + e.getMessage());
+            }
+        }
+        if (readingWriter != null) {
+            readingWriter.close();
+        }
+        if (authenticationService != null) {
+            authenticationService.close();
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
     }
     
     public void showLoginPage() {
@@ -54,7 +201,9 @@ public class MainApp extends Application {
         primaryStage.show();
     }
     
+    // Shown after a successful login; the session's pages are built meanwhile
     public void showWelcomeScreen() {
+        pages.prebuildAll();
         WelcomeScreen welcomeScreen = new WelcomeScreen(primaryStage, this);
         Scene welcomeScene = welcomeScreen.createWelcomeScene();
         primaryStage.setScene(welcomeScene);
@@ -62,32 +211,21 @@ public class MainApp extends Application {
     }
     
     public void showDashboard() {
-        DashBoard dashboardUI = new DashBoard(this);
-        Scene dashboardScene = dashboardUI.createDashboardScene();
-        primaryStage.setScene(dashboardScene);
+        pages.show(primaryStage, DashBoard.class);
         primaryStage.show();
     }
     
     public void showOverviewPage() {
-        OverviewPage overviewPage = new OverviewPage();
-        primaryStage.getScene().setRoot(overviewPage.createContent());
+        pages.show(primaryStage, OverviewPage.class);
     }
     
     public void showSoilMoisturePage() {
-        // Implement soil moisture page
-        // This method will be implemented when the page is ready
-        SoilMoisturePage soilMoisturePage = new SoilMoisturePage(this);
-        Scene soilMoistureScene = new Scene(soilMoisturePage.createContent(), 1000, 800);
-        primaryStage.setScene(soilMoistureScene);
+        pages.show(primaryStage, SoilMoisturePage.class);
         primaryStage.show();
     }
     
     public void showIrrigationControlPage() {
-        // Implement irrigation control page
-        // This method will be implemented when the page is ready
-        IrrigationControlPage irrigationControlPage = new IrrigationControlPage(this);
-        Scene irrigationControlScene = new Scene(irrigationControlPage.createContent(), 1000, 800);
-        primaryStage.setScene(irrigationControlScene);
+        pages.show(primaryStage, IrrigationControlPage.class);
         primaryStage.show();
     }
     
@@ -107,15 +245,15 @@ public class MainApp extends Application {
     }
     
     public void showSensorSimulationPage() {
-        SensorSimulationPage sensorSimulationPage = new SensorSimulationPage(this);
-        Scene sensorScene = new Scene(sensorSimulationPage.createContent(), 1000, 800);
-        primaryStage.setScene(sensorScene);
+        pages.show(primaryStage, SensorSimulationPage.class);
         primaryStage.show();
     }
     
     // Method to handle logout
     public void logout() {
         loggedInUser = null;
+        // The next user gets fresh pages
+        pages.clear();
         showLoginPage();
     }
     
@@ -128,6 +266,95 @@ public class MainApp extends Application {
         this.loggedInUser = username;
     }
     
+    // Pooled connections to the application database
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+    
+    public AuthenticationService getAuthenticationService() {
+        return authenticationService;
+    }
+    
+    public SensorHistoryStore getHistoryStore() {
+        return historyStore;
+    }
+    
+    public SensorRollups getRollups() {
+        return rollups;
+    }
+    
+    // Null if the log could not be opened
+    public IrrigationEventLog getEventLog() {
+        return eventLog;
+    }
+    
+    public IrrigationScheduler getIrrigationScheduler() {
+        return irrigationScheduler;
+    }
+    
+    public AutoIrrigationController getAutoIrrigation() {
+        return autoIrrigation;
+    }
+    
+    // Plans cycles within the shared pump's flow
+    public FlowCapacityPlanner getFlowPlanner() {
+        return flowPlanner;
+    }
+    
+    public UiUpdateBus getUiUpdates() {
+        return uiUpdates;
+    }
+    
+    // Called with every recorded reading on the recording thread, which need
+    // not be the FX thread; post to the UiUpdateBus to show it
+    public void addReadingListener(Consumer<SensorReading> listener) {
+        readingListeners.add(listener);
+    }
+    
+    public void removeReadingListener(Consumer<SensorReading> listener) {
+        readingListeners.remove(listener);
+    }
+    
+    // Keeps a probe's reading in the sensor history and its rollups, queues it
+    // for the database and passes it with its decision to auto mode and the
+    // reading listeners; called on the probe pipeline's threads
+    private void recordReading(SensorReading reading, IrrigationDecision decision) {
+        historyStore.append(reading);
+        rollups.record(reading);
+        readingWriter.write(reading);
+        autoIrrigation.onDecision(reading, decision);
+        for (Consumer<SensorReading> listener : readingListeners) {
+            listener.accept(reading);
+        }
+    }
+    
+    // Runs decisions for the readings of probes on the given port and records
+    // them; without a probe port the app records no readings and the database
+    // gets none
+    private void startProbeIngest(int port) {
+        // Inserts before the schema migration finishes are retried
+        readingWriter = new SensorReadingWriter(dataSource, READING_BATCH_SIZE, READING_FLUSH_MILLIS,
+                TimeUnit.MILLISECONDS, READING_QUEUE_CAPACITY);
+        readingWriter.start();
+        probePipeline = new SensorIngestPipeline(new SensorSimulator(), PROBE_WORKERS, PROBE_QUEUE_CAPACITY);
+        probePipeline.addListener(this::recordReading);
+        probePipeline.start();
+        try {
+            probeSource = new SocketReadingSource(probePipeline, port);
+            probeSource.start();
+            System.out.println("Listening for sensor readings on localhost:" + probeSource.getPort());
+        } catch (IOException e) {
+            System.err.println("Could not listen for sensor readings on port " + port + ": " + e.getMessage());
+        }
+    }
+    
+    // The default field locations water the Irrigation Control page's zones
+    // 1-4; any other location is a zone of its own
+    private static String zoneOf(SensorReading reading) {
+        int id = reading.getLocationId();
+        return id < LocationRegistry.defaultLocations().size() ? "Zone " + (id + 1) : reading.getLocation();
+    }
+    
     public static void main(String[] args) {
         launch(args);
     }
@@ -13,26 +13,25 @@ import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
 
-public class OverviewPage extends Application {
+public class OverviewPage extends Application implements Page {
     
     private static final String PRIMARY_COLOR = "#1A5F7A";
-    private static final String SECONDARY_COLOR = "#2E8B57";
     private static final String ACCENT_COLOR = "#FF6347";
-    private static final String BACKGROUND_COLOR = "#F8F9FA";
     
     @Override
     public void start(Stage primaryStage) {
-        Scene scene = new Scene(createContent(), 900, 700);
+        Scene scene = Styles.apply(new Scene(createContent(), 900, 700));
         primaryStage.setTitle("AgriTech Irrigation System");
         primaryStage.setScene(scene);
         primaryStage.show();
     }
     
     // Add this method to fix the error
+    @Override
     public Parent createContent() {
         VBox root = new VBox(20);
         root.setPadding(new Insets(25));
-        root.setStyle("-fx-background-color: " + BACKGROUND_COLOR + ";");
+        root.getStyleClass().add("page");
         
         // Header
         Text title = new Text("System Overview");
@@ -73,7 +72,7 @@ public class OverviewPage extends Application {
     
     private VBox createSoilMoistureCard() {
         VBox card = new VBox(10);
-        card.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        card.getStyleClass().add("card");
         card.setPadding(new Insets(20));
         card.setPrefWidth(250);
         
@@ -120,7 +119,7 @@ public class OverviewPage extends Application {
     
     private VBox createWindSpeedCard() {
         VBox card = new VBox(10);
-        card.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        card.getStyleClass().add("card");
         card.setPadding(new Insets(20));
         card.setPrefWidth(250);
         
@@ -176,7 +175,7 @@ public class OverviewPage extends Application {
     
     private VBox createTemperatureCard() {
         VBox card = new VBox(10);
-        card.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        card.getStyleClass().add("card");
         card.setPadding(new Insets(20));
         card.setPrefWidth(250);
         
@@ -232,7 +231,7 @@ public class OverviewPage extends Application {
     
     private VBox createInputForm() {
         VBox formContainer = new VBox(15);
-        formContainer.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        formContainer.getStyleClass().add("card");
         formContainer.setPadding(new Insets(20));
         
         Text formTitle = new Text("Manual Sensor Readings Input");
@@ -245,7 +244,7 @@ public class OverviewPage extends Application {
         locationLabel.setFont(Font.font("Arial", FontWeight.MEDIUM, 14));
         
         ComboBox<String> locationDropdown = new ComboBox<>();
-        locationDropdown.getItems().addAll("Field A - North", "Field A - South", "Field B - East", "Field B - West");
+        locationDropdown.getItems().addAll(LocationRegistry.defaultLocations());
         locationDropdown.setValue("Field A - North");
         locationDropdown.setMaxWidth(Double.MAX_VALUE);
         locationDropdown.setPrefHeight(35);
@@ -327,13 +326,7 @@ public class OverviewPage extends Application {
         
         // Save button
         Button saveButton = new Button("Save Readings");
-        saveButton.setStyle(
-            "-fx-background-color: " + SECONDARY_COLOR + ";" +
-            "-fx-text-fill: white;" +
-            "-fx-font-size: 14px;" +
-            "-fx-padding: 10 20;" +
-            "-fx-background-radius: 5;"
-        );
+        saveButton.getStyleClass().addAll("secondary-button", "large-button");
         
         // Button container
         HBox buttonBox = new HBox();
@@ -0,0 +1,16 @@
+import javafx.scene.Parent;
+
+// A screen that MainApp builds once per session and then hides and shows
+// again as the user navigates (see PageCache).
+public interface Page {
+    
+    Parent createContent();
+    
+    // Called each time the page comes on screen, including the first
+    default void resume() {
+    }
+    
+    // Called when another page replaces it; stop timers and subscriptions here
+    default void suspend() {
+    }
+}
\ No newline at end of file
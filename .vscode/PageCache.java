@@ -0,0 +1,199 @@
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Keeps one instance of each page for the session and shows pages by
+// swapping the root of a single Scene. Going back to a page reuses its
+// nodes, charts and state instead of building them, and their CSS, again,
+// and memory stays at one copy of each page however often the user clicks
+// around. The page being left is suspended and the one shown is resumed.
+//
+// prebuildAll() builds the registered pages ahead of time on a background
+// thread; nodes may be created off the FX thread as long as they aren't in
+// a shown scene, so the FX thread only files the finished pages away. A page
+// is never built twice at once: opening a page the prebuild is building
+// waits for that build, and the prebuild skips a page being built on the FX
+// thread. Everything else runs on the FX thread.
+public class PageCache {
+    
+    private static final class Entry {
+        final Page page;
+        final Parent root;
+        
+        Entry(Page page, Parent root) {
+            this.page = page;
+            this.root = root;
+        }
+    }
+    
+    private final double width;
+    private final double height;
+    private final StartupProfiler profiler;
+    private final Map<Class<? extends Page>, Supplier<? extends Page>> factories = new LinkedHashMap<>();
+    // Read by the prebuild thread to skip pages already built
+    private final Map<Class<? extends Page>, Entry> entries = new ConcurrentHashMap<>();
+    // Builds under way, and prebuilt pages not filed away yet; replaced by
+    // clear(), so an earlier session's prebuild claims nothing in this one
+    private volatile Map<Class<? extends Page>, CompletableFuture<Entry>> building = new ConcurrentHashMap<>();
+    private Scene scene;
+    private Entry current;
+    private Task<Void> prebuild;
+    // Bumped by clear(), so a prebuild from an earlier session is dropped
+    private int session;
+    
+    // Size of the scene when the first page is shown
+    public PageCache(double width, double height, StartupProfiler profiler) {
+        this.width = width;
+        this.height = height;
+        this.profiler = profiler;
+    }
+    
+    public <P extends Page> void register(Class<P> type, Supplier<P> factory) {
+        factories.put(type, factory);
+    }
+    
+    // Shows the page of the given type, building it first if needed
+    public <P extends Page> P show(Stage stage, Class<P> type) {
+        Entry entry = entries.get(type);
+        if (entry == null) {
+            entry = buildOnDemand(type);
+        }
+        
+        if (entry != current) {
+            if (current != null) {
+                current.page.suspend();
+            }
+            if (scene == null) {
+                scene = Styles.apply(new Scene(entry.root, width, height));
+            } else {
+                scene.setRoot(entry.root);
+            }
+            current = entry;
+            entry.page.resume();
+        }
+        if (stage.getScene() != scene) {
+            stage.setScene(scene);
+        }
+        return type.cast(entry.page);
+    }
+    
+    // Builds every registered page not built yet, in registration order, on
+    // a low-priority background thread
+    public void prebuildAll() {
+        if (prebuild != null && !prebuild.isDone()) {
+            return;
+        }
+        int prebuildSession = session;
+        Map<Class<? extends Page>, CompletableFuture<Entry>> claims = building;
+        List<Class<? extends Page>> types = new ArrayList<>(factories.keySet());
+        prebuild = new Task<Void>() {
+            @Override
+            protected Void call() {
+                for (Class<? extends Page> type : types) {
+                    if (isCancelled()) {
+                        break;
+                    }
+                    CompletableFuture<Entry> claim = new CompletableFuture<>();
+                    if (entries.containsKey(type) || claims.putIfAbsent(type, claim) != null) {
+                        continue;
+                    }
+                    if (entries.containsKey(type)) {
+                        // Filed away just before the claim
+                        claims.remove(type, claim);
+                        continue;
+                    }
+                    try {
+                        Entry entry = build(type, "in background");
+                        // Waiters take it from the claim until it is filed away
+                        claim.complete(entry);
+                        Platform.runLater(() -> {
+                            if (session == prebuildSession) {
+                                entries.putIfAbsent(type, entry);
+                            }
+                            claims.remove(type, claim);
+                        });
+                    } catch (RuntimeException e) {
+                        // It is built again when opened
+                        System.err.println("Could not prebuild " + type.getSimpleName() + ": " + e);
+                        claims.remove(type, claim);
+                        claim.completeExceptionally(e);
+                    }
+                }
+                return null;
+            }
+        };
+        Thread thread = new Thread(prebuild, "page-prebuild");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+    
+    // Suspends the current page and forgets every page, e.g. on logout
+    public void clear() {
+        session++;
+        if (prebuild != null) {
+            prebuild.cancel(false);
+            prebuild = null;
+        }
+        if (current != null) {
+            current.page.suspend();
+        }
+        current = null;
+        entries.clear();
+        building = new ConcurrentHashMap<>();
+        scene = null;
+    }
+    
+    // Builds a page on the FX thread, or waits for the prebuild if it is
+    // building the page right now
+    private Entry buildOnDemand(Class<? extends Page> type) {
+        Map<Class<? extends Page>, CompletableFuture<Entry>> claims = building;
+        while (true) {
+            CompletableFuture<Entry> claim = new CompletableFuture<>();
+            CompletableFuture<Entry> inFlight = claims.putIfAbsent(type, claim);
+            if (inFlight == null) {
+                try {
+                    Entry entry = build(type, "on demand");
+                    entries.put(type, entry);
+                    claim.complete(entry);
+                    return entry;
+                } catch (RuntimeException e) {
+                    claim.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    claims.remove(type, claim);
+                }
+            }
+            try {
+                Entry entry = inFlight.join();
+                entries.putIfAbsent(type, entry);
+                return entries.get(type);
+            } catch (CompletionException e) {
+                // The prebuild failed and gave up its claim; build it here
+            }
+        }
+    }
+    
+    private Entry build(Class<? extends Page> type, String how) {
+        Supplier<? extends Page> factory = factories.get(type);
+        if (factory == null) {
+            throw new IllegalArgumentException("No page registered for " + type.getSimpleName());
+        }
+        long start = System.nanoTime();
+        Page page = factory.get();
+        Entry entry = new Entry(page, page.createContent());
+        profiler.record("built " + type.getSimpleName() + " " + how, System.nanoTime() - start);
+        return entry;
+    }
+}
\ No newline at end of file
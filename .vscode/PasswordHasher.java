@@ -0,0 +1,89 @@
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.spec.KeySpec;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+// Salted, deliberately slow password hashes for the users table, stored as
+//
+//   pbkdf2-sha256$<iterations>$<base64 salt>$<base64 hash>
+//
+// The iteration count is part of the stored value, so it can be raised
+// later: needsRehash tells the login code to store a fresh hash the next
+// time the user signs in with the right password.
+public class PasswordHasher {
+    
+    static final int DEFAULT_ITERATIONS = 600_000;
+    
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    
+    public PasswordHasher() {
+        this(DEFAULT_ITERATIONS);
+    }
+    
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be positive");
+        }
+        this.iterations = iterations;
+    }
+    
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + base64.encodeToString(salt) + "$"
+                + base64.encodeToString(derive(password, salt, iterations));
+    }
+    
+    // Checks a password against a stored hash; false for anything that is not one
+    public boolean verify(String password, String storedHash) {
+        String[] parts = storedHash.split("\\$");
+        if (parts.length != 4 || !parts[0].equals(PREFIX)) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return storedIterations > 0
+                    && MessageDigest.isEqual(expected, derive(password, salt, storedIterations));
+        } catch (IllegalArgumentException e) {
+            return false; // Malformed number or base64
+        }
+    }
+    
+    public static boolean isHash(String stored) {
+        return stored.startsWith(PREFIX + "$");
+    }
+    
+    // True for legacy plaintext values and hashes weaker than this hasher makes
+    public boolean needsRehash(String stored) {
+        if (!isHash(stored)) {
+            return true;
+        }
+        int end = stored.indexOf('$', PREFIX.length() + 1);
+        try {
+            return end < 0 || Integer.parseInt(stored.substring(PREFIX.length() + 1, end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+    
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        KeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+import javafx.scene.Scene;
+
+// Times the CSS and layout passes of each pulse of a scene, which is where
+// style changes cost, and prints a summary every few seconds:
+//
+//   Pulses: 212 in 5.0 s, CSS and layout mean 0.21 ms, max 1.90 ms
+//
+// MainApp attaches it to the stage's scene when started with
+// -Dagritech.pulseTiming=true, so the same clicks can be timed on two
+// builds. Runs on the FX thread only.
+public class PulseTimer {
+    
+    private static final long REPORT_NANOS = 5_000_000_000L;
+    
+    private final Runnable beforeCss = this::beforeCss;
+    private final Runnable afterLayout = this::afterLayout;
+    private Scene scene;
+    private long pulseStart;
+    private long windowStart = System.nanoTime();
+    private int pulses;
+    private long totalNanos;
+    private long maxNanos;
+    
+    // Moves the timer to the given scene; null stops timing
+    public void attach(Scene newScene) {
+        if (newScene == scene) {
+            return;
+        }
+        if (scene != null) {
+            scene.removePreLayoutPulseListener(beforeCss);
+            scene.removePostLayoutPulseListener(afterLayout);
+        }
+        scene = newScene;
+        pulseStart = 0;
+        if (scene != null) {
+            // Pre-layout listeners run before the CSS pass
+            scene.addPreLayoutPulseListener(beforeCss);
+            scene.addPostLayoutPulseListener(afterLayout);
+        }
+    }
+    
+    private void beforeCss() {
+        pulseStart = System.nanoTime();
+    }
+    
+    private void afterLayout() {
+        if (pulseStart == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long nanos = now - pulseStart;
+        pulseStart = 0;
+        pulses++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        
+        if (now - windowStart >= REPORT_NANOS) {
+            System.out.printf("Pulses: %d in %.1f s, CSS and layout mean %.2f ms, max %.2f ms%n",
+                    pulses, (now - windowStart) / 1e9, totalNanos / 1e6 / pulses, maxNanos / 1e6);
+            windowStart = now;
+            pulses = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// An observable list of at most `capacity` elements kept in a ring, for
+// tables that show the newest rows first. Adding at the head takes constant
+// time however long the list is: when the list is full the element at the
+// tail drops off instead of every element moving down a slot, and listeners
+// (a TableView) get one change naming just the rows added and dropped, so a
+// table of 100,000 rows only re-renders the rows on screen.
+//
+// Only adding at either end, replacing everything and clearing are
+// supported; set, remove and inserts in the middle throw
+// UnsupportedOperationException. Like any JavaFX list shown in a scene, it
+// must only be changed on the FX thread.
+public class RingBufferObservableList<E> extends ObservableListBase<E> {
+    
+    private final Object[] elements;
+    // Array index of list index 0
+    private int head;
+    private int size;
+    
+    public RingBufferObservableList(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        elements = new Object[capacity];
+    }
+    
+    public int capacity() {
+        return elements.length;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return (E) elements[slot(index)];
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    // Inserts at index 0, dropping the last element if the list is full
+    public void addFirst(E element) {
+        addAllFirst(List.of(element));
+    }
+    
+    // Inserts the elements at the head one after another, so the last one
+    // ends up at index 0; the oldest drop off the tail if the list is full
+    public void addAllFirst(Collection<? extends E> newElements) {
+        int count = newElements.size();
+        if (count == 0) {
+            return;
+        }
+        int skip = Math.max(0, count - elements.length);
+        int added = count - skip;
+        
+        beginChange();
+        int overflow = size + added - elements.length;
+        if (overflow > 0) {
+            List<E> dropped = new ArrayList<>(overflow);
+            for (int i = size - overflow; i < size; i++) {
+                dropped.add(get(i));
+                elements[slot(i)] = null;
+            }
+            size -= overflow;
+            nextRemove(size, dropped);
+        }
+        int i = 0;
+        for (E element : newElements) {
+            if (i++ < skip) {
+                continue;
+            }
+            head = (head - 1 + elements.length) % elements.length;
+            elements[head] = element;
+        }
+        size += added;
+        modCount++;
+        nextAdd(0, added);
+        endChange();
+    }
+    
+    // Appends at the end, dropping the first element if the list is full
+    public void addLast(E element) {
+        beginChange();
+        if (size == elements.length) {
+            E dropped = get(0);
+            elements[head] = null;
+            head = (head + 1) % elements.length;
+            size--;
+            nextRemove(0, dropped);
+        }
+        elements[slot(size)] = element;
+        size++;
+        modCount++;
+        nextAdd(size - 1, size);
+        endChange();
+    }
+    
+    @Override
+    public boolean add(E element) {
+        addLast(element);
+        return true;
+    }
+    
+    @Override
+    public void add(int index, E element) {
+        if (index == 0) {
+            addFirst(element);
+        } else if (index == size) {
+            addLast(element);
+        } else {
+            throw new UnsupportedOperationException("Only adds at either end are supported");
+        }
+    }
+    
+    // Replaces the contents with the first `capacity` elements, in order
+    @Override
+    public boolean setAll(Collection<? extends E> newElements) {
+        beginChange();
+        if (size > 0) {
+            nextRemove(0, new ArrayList<>(this));
+        }
+        clearElements();
+        for (E element : newElements) {
+            if (size == elements.length) {
+                break;
+            }
+            elements[size++] = element;
+        }
+        modCount++;
+        if (size > 0) {
+            nextAdd(0, size);
+        }
+        endChange();
+        return true;
+    }
+    
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        beginChange();
+        nextRemove(0, new ArrayList<>(this));
+        clearElements();
+        modCount++;
+        endChange();
+    }
+    
+    private void clearElements() {
+        for (int i = 0; i < size; i++) {
+            elements[slot(i)] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+    
+    private int slot(int index) {
+        int slot = head + index;
+        return slot < elements.length ? slot : slot - elements.length;
+    }
+}
\ No newline at end of file
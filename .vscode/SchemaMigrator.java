@@ -0,0 +1,136 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.sql.DataSource;
+
+// Brings the database schema up to date with numbered migrations. Applied
+// versions are recorded in schema_version, so a launch against an
+// up-to-date database costs a single query. Each migration's statements are
+// written to be harmless if repeated, in case two instances race on a fresh
+// database (CREATE TABLE IF NOT EXISTS, INSERT IGNORE for seeded rows); the
+// loser's version insert fails and it re-reads the version.
+public class SchemaMigrator {
+    
+    // Changes the schema from the previous version to this one
+    public interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+    
+    public static final class Migration {
+        final int version;
+        final String description;
+        final Step step;
+        
+        public Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+    
+    private static final String CREATE_VERSION_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT PRIMARY KEY, " +
+            "description VARCHAR(200) NOT NULL, " +
+            "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")";
+    private static final String CURRENT_VERSION_SQL = "SELECT MAX(version) FROM schema_version";
+    private static final String RECORD_VERSION_SQL = "INSERT INTO schema_version (version, description) VALUES (?, ?)";
+    
+    private final DataSource dataSource;
+    private final List<Migration> migrations;
+    
+    public SchemaMigrator(DataSource dataSource, List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort((a, b) -> Integer.compare(a.version, b.version));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).version != i + 1) {
+                throw new IllegalArgumentException("Migration versions must run 1, 2, 3... without gaps");
+            }
+        }
+        this.dataSource = dataSource;
+        this.migrations = Collections.unmodifiableList(sorted);
+    }
+    
+    // The application's schema, oldest change first. Never edit a released
+    // migration; add a new one instead.
+    public static List<Migration> applicationMigrations(PasswordHasher hasher) {
+        return Arrays.asList(
+            new Migration(1, "Create users table", UserRepository::createTable),
+            new Migration(2, "Widen password column for hashes", UserRepository::widenPasswordColumn),
+            new Migration(3, "Add default users", conn -> UserRepository.addDefaultUsers(conn, hasher)),
+            new Migration(4, "Create sensor_readings table", SensorReadingWriter::createTable)
+        );
+    }
+    
+    // Runs migrate() on a background thread
+    public CompletableFuture<Integer> migrateInBackground() {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(migrate());
+            } catch (SQLException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, "schema-migration");
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+    
+    // Applies the migrations the database has not seen yet; returns the schema version
+    public int migrate() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            int current = currentVersion(conn);
+            for (Migration migration : migrations) {
+                if (migration.version <= current) {
+                    continue;
+                }
+                migration.step.apply(conn);
+                try (PreparedStatement stmt = conn.prepareStatement(RECORD_VERSION_SQL)) {
+                    stmt.setInt(1, migration.version);
+                    stmt.setString(2, migration.description);
+                    stmt.executeUpdate();
+                } catch (SQLException e) {
+                    // Another instance recorded it first
+                    if (currentVersion(conn) < migration.version) {
+                        throw e;
+                    }
+                }
+                current = migration.version;
+                System.out.println("Applied schema migration " + migration.version + ": " + migration.description);
+            }
+            return current;
+        }
+    }
+    
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(CURRENT_VERSION_SQL)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            if (!isMissingTable(e)) {
+                throw e;
+            }
+            // First run: no version table yet
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(CREATE_VERSION_TABLE_SQL);
+            }
+            return 0;
+        }
+    }
+    
+    // MySQL reports error 1146; other databases use the standard SQLState
+    // ("42S02", "42S04" from H2 for an empty database, "42P01" on PostgreSQL)
+    private static boolean isMissingTable(SQLException e) {
+        String state = e.getSQLState();
+        return e.getErrorCode() == 1146 || "42S02".equals(state) || "42S04".equals(state) || "42P01".equals(state);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,498 @@
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Columnar history of sensor readings, kept outside the Java heap.
+//
+// Readings are partitioned by location and UTC day. A partition is a list of
+// fixed-size chunks of CHUNK_ROWS rows (one day at one reading per second);
+// each chunk stores the time of day and every SensorMetric in its own column,
+// so a chart that needs one metric only touches that column. Values are
+// stored as floats.
+//
+// With a directory the chunks are memory-mapped files
+// (<directory>/<location>/<epochDay>-<chunk>.col) and survive restarts;
+// inMemory() keeps them in direct buffers instead. Either way the rows never
+// become Java objects, so months of history add no GC work. A chunk file's
+// channel is closed as soon as it is mapped, and at most
+// MAX_OPEN_PARTITIONS days stay mapped: the least recently used ones are
+// flushed and dropped, and mapped again from disk when next read.
+//
+// Appends for one location are serialised; scans may run concurrently with
+// them and see every row appended before the scan reached its chunk.
+public class SensorHistoryStore implements AutoCloseable {
+    
+    // Receives every reading in a scanned range, oldest first
+    public interface HistoryVisitor {
+        void visit(long timestamp, double soilMoisture, double temperature, double humidity,
+                   double rainfall, double windSpeed, double lightIntensity);
+    }
+    
+    // Receives one metric of every reading in a scanned range, oldest first
+    public interface MetricVisitor {
+        void visit(long timestamp, double value);
+    }
+    
+    static final int CHUNK_ROWS = 86_400;
+    static final long MILLIS_PER_DAY = 86_400_000L;
+    
+    private static final int MAGIC = 0x41475453; // "AGTS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int ROW_COUNT_OFFSET = 8;
+    private static final int SORTED_OFFSET = 12;
+    private static final int METRIC_COUNT = SensorMetric.values().length;
+    private static final int COLUMN_BYTES = CHUNK_ROWS * 4;
+    private static final int CHUNK_BYTES = HEADER_BYTES + COLUMN_BYTES * (1 + METRIC_COUNT);
+    private static final String CHUNK_SUFFIX = ".col";
+    // Days kept mapped across all locations when history is on disk
+    private static final int MAX_OPEN_PARTITIONS = 64;
+    
+    private final Path directory;
+    private volatile LocationHistory[] locations = new LocationHistory[16];
+    private volatile boolean closed;
+    // Mapped partitions of every location, least recently used first
+    private final Map<Partition, LocationHistory> openPartitions = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile boolean evictionDue;
+    
+    // Keeps history in memory-mapped files under the given directory
+    public SensorHistoryStore(Path directory) throws IOException {
+        this.directory = directory;
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+    }
+    
+    // Keeps history in direct buffers; nothing is written to disk
+    public static SensorHistoryStore inMemory() {
+        try {
+            return new SensorHistoryStore(null);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // No directory, nothing to fail
+        }
+    }
+    
+    public void append(SensorReading reading) {
+        try {
+            locationHistory(reading.getLocationId()).append(reading);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not store reading for " + reading.getLocation(), e);
+        }
+        if (evictionDue) {
+            evictIdlePartitions();
+        }
+    }
+    
+    // Visits the readings of a location with fromMillis <= timestamp < toMillis
+    public void scan(int locationId, long fromMillis, long toMillis, HistoryVisitor visitor) {
+        forEachChunk(locationId, fromMillis, toMillis, (chunk, dayStart, first, end) -> {
+            ByteBuffer buffer = chunk.buffer;
+            for (int row = first; row < end; row++) {
+                long timestamp = dayStart + buffer.getInt(HEADER_BYTES + row * 4);
+                if (chunk.sorted || (timestamp >= fromMillis && timestamp < toMillis)) {
+                    visitor.visit(timestamp,
+                            value(buffer, 0, row), value(buffer, 1, row), value(buffer, 2, row),
+                            value(buffer, 3, row), value(buffer, 4, row), value(buffer, 5, row));
+                }
+            }
+        });
+    }
+    
+    // Like scan, but only reads the time column and the column of one metric
+    public void scanMetric(int locationId, SensorMetric metric, long fromMillis, long toMillis, MetricVisitor visitor) {
+        int column = metric.ordinal();
+        forEachChunk(locationId, fromMillis, toMillis, (chunk, dayStart, first, end) -> {
+            ByteBuffer buffer = chunk.buffer;
+            for (int row = first; row < end; row++) {
+                long timestamp = dayStart + buffer.getInt(HEADER_BYTES + row * 4);
+                if (chunk.sorted || (timestamp >= fromMillis && timestamp < toMillis)) {
+                    visitor.visit(timestamp, value(buffer, column, row));
+                }
+            }
+        });
+    }
+    
+    // Number of readings of a location with fromMillis <= timestamp < toMillis
+    public long countReadings(int locationId, long fromMillis, long toMillis) {
+        long[] count = new long[1];
+        forEachChunk(locationId, fromMillis, toMillis, (chunk, dayStart, first, end) -> {
+            if (chunk.sorted) {
+                count[0] += end - first;
+                return;
+            }
+            for (int row = first; row < end; row++) {
+                long timestamp = dayStart + chunk.buffer.getInt(HEADER_BYTES + row * 4);
+                if (timestamp >= fromMillis && timestamp < toMillis) {
+                    count[0]++;
+                }
+            }
+        });
+        return count[0];
+    }
+    
+    // Forces memory-mapped chunks to disk
+    public void flush() {
+        for (LocationHistory history : locations) {
+            if (history != null) {
+                history.flush();
+            }
+        }
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        for (LocationHistory history : locations) {
+            if (history != null) {
+                history.close();
+            }
+        }
+    }
+    
+    private static double value(ByteBuffer buffer, int column, int row) {
+        return buffer.getFloat(HEADER_BYTES + COLUMN_BYTES * (1 + column) + row * 4);
+    }
+    
+    private interface ChunkRange {
+        void visit(Chunk chunk, long dayStart, int firstRow, int endRow);
+    }
+    
+    // Calls the range visitor for every chunk overlapping [fromMillis, toMillis).
+    // For sorted chunks the row range is narrowed by binary search; unsorted
+    // chunks pass all rows and the caller filters by time.
+    private void forEachChunk(int locationId, long fromMillis, long toMillis, ChunkRange range) {
+        // Any registered location may have history on disk from an earlier run
+        if (fromMillis >= toMillis || locationId < 0 || locationId >= LocationRegistry.size()) {
+            return;
+        }
+        LocationHistory history = locationHistory(locationId);
+        long firstDay = Math.floorDiv(fromMillis, MILLIS_PER_DAY);
+        long lastDay = Math.floorDiv(toMillis - 1, MILLIS_PER_DAY);
+        for (long day = firstDay; day <= lastDay; day++) {
+            Partition partition;
+            try {
+                partition = history.partition(day, false);
+            } catch (IOException e) {
+                System.err.println("Could not read sensor history: " + e.getMessage());
+                continue;
+            }
+            if (partition == null) {
+                continue;
+            }
+            
+            long dayStart = day * MILLIS_PER_DAY;
+            int fromOffset = (int) Math.max(0, fromMillis - dayStart);
+            long toOffset = Math.min(MILLIS_PER_DAY, toMillis - dayStart);
+            for (Chunk chunk : partition.chunks) {
+                int rows = chunk.rowCount;
+                if (!chunk.sorted) {
+                    range.visit(chunk, dayStart, 0, rows);
+                    continue;
+                }
+                int first = chunk.firstRowAtOrAfter(fromOffset, rows);
+                int end = toOffset >= MILLIS_PER_DAY ? rows : chunk.firstRowAtOrAfter((int) toOffset, rows);
+                if (first < end) {
+                    range.visit(chunk, dayStart, first, end);
+                }
+            }
+        }
+        if (evictionDue) {
+            evictIdlePartitions();
+        }
+    }
+    
+    // Called by a location after it mapped a partition; in-memory partitions
+    // hold the only copy of their data and are never dropped
+    private void partitionOpened(Partition partition, LocationHistory history) {
+        if (directory == null) {
+            return;
+        }
+        synchronized (openPartitions) {
+            openPartitions.put(partition, history);
+            if (openPartitions.size() > MAX_OPEN_PARTITIONS) {
+                evictionDue = true;
+            }
+        }
+    }
+    
+    private void partitionUsed(Partition partition) {
+        if (directory == null) {
+            return;
+        }
+        synchronized (openPartitions) {
+            openPartitions.get(partition);
+        }
+    }
+    
+    // Drops the least recently used partitions over the limit, skipping the
+    // ones locations are appending to. Never called with a location's lock
+    // held, since dropping takes the owning location's lock.
+    private void evictIdlePartitions() {
+        List<Map.Entry<Partition, LocationHistory>> evicted = new ArrayList<>();
+        synchronized (openPartitions) {
+            Iterator<Map.Entry<Partition, LocationHistory>> entries = openPartitions.entrySet().iterator();
+            while (openPartitions.size() - evicted.size() > MAX_OPEN_PARTITIONS && entries.hasNext()) {
+                Map.Entry<Partition, LocationHistory> entry = entries.next();
+                if (entry.getValue().current != entry.getKey()) {
+                    evicted.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+            for (Map.Entry<Partition, LocationHistory> entry : evicted) {
+                openPartitions.remove(entry.getKey());
+            }
+            evictionDue = openPartitions.size() > MAX_OPEN_PARTITIONS;
+        }
+        for (Map.Entry<Partition, LocationHistory> entry : evicted) {
+            entry.getValue().evict(entry.getKey());
+        }
+    }
+    
+    private LocationHistory locationHistory(int locationId) {
+        LocationHistory[] current = locations;
+        if (locationId < current.length && current[locationId] != null) {
+            return current[locationId];
+        }
+        synchronized (this) {
+            current = locations;
+            if (locationId >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, locationId + 1));
+            }
+            if (current[locationId] == null) {
+                current[locationId] = new LocationHistory(locationId);
+            }
+            locations = current;
+            return current[locationId];
+        }
+    }
+    
+    private final class LocationHistory {
+        private final Path locationDirectory;
+        private final Map<Long, Partition> partitions = new ConcurrentHashMap<>();
+        // Days with chunk files on disk that have not been opened yet
+        private final Set<Long> storedDays = ConcurrentHashMap.newKeySet();
+        // Partition of the newest day appended to; kept mapped
+        volatile Partition current;
+        
+        LocationHistory(int locationId) {
+            if (directory == null) {
+                locationDirectory = null;
+                return;
+            }
+            String name = URLEncoder.encode(LocationRegistry.nameOf(locationId), StandardCharsets.UTF_8);
+            locationDirectory = directory.resolve(name);
+            if (Files.isDirectory(locationDirectory)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(locationDirectory, "*-0" + CHUNK_SUFFIX)) {
+                    for (Path file : files) {
+                        String fileName = file.getFileName().toString();
+                        storedDays.add(Long.parseLong(fileName.substring(0, fileName.indexOf('-'))));
+                    }
+                } catch (IOException | NumberFormatException e) {
+                    System.err.println("Could not list sensor history in " + locationDirectory + ": " + e.getMessage());
+                }
+            }
+        }
+        
+        synchronized void append(SensorReading reading) throws IOException {
+            if (closed) {
+                throw new IllegalStateException("History store is closed");
+            }
+            long day = Math.floorDiv(reading.getTimestamp(), MILLIS_PER_DAY);
+            Partition partition = current;
+            if (partition == null || partition.epochDay != day) {
+                partition = partition(day, true);
+                if (current == null || day >= current.epochDay) {
+                    current = partition;
+                }
+            }
+            
+            Chunk[] chunks = partition.chunks;
+            Chunk chunk = chunks[chunks.length - 1];
+            if (chunk.rowCount == CHUNK_ROWS) {
+                chunk = openChunk(day, chunks.length, true);
+                Chunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+                grown[chunks.length] = chunk;
+                partition.chunks = grown;
+            }
+            chunk.append((int) (reading.getTimestamp() - day * MILLIS_PER_DAY), reading);
+        }
+        
+        Partition partition(long day, boolean create) throws IOException {
+            Partition partition = partitions.get(day);
+            if (partition != null) {
+                partitionUsed(partition);
+                return partition;
+            }
+            if (!create && !storedDays.contains(day)) {
+                return null;
+            }
+            synchronized (this) {
+                partition = partitions.get(day);
+                if (partition != null) {
+                    return partition;
+                }
+                List<Chunk> chunks = new ArrayList<>();
+                if (storedDays.remove(day)) {
+                    for (int index = 0; Files.exists(chunkFile(day, index)); index++) {
+                        chunks.add(openChunk(day, index, false));
+                    }
+                }
+                if (chunks.isEmpty()) {
+                    chunks.add(openChunk(day, 0, true));
+                }
+                partition = new Partition(day, chunks.toArray(new Chunk[0]));
+                partitions.put(day, partition);
+                partitionOpened(partition, this);
+                return partition;
+            }
+        }
+        
+        // Flushes a partition and forgets it; it is mapped again when next read
+        synchronized void evict(Partition partition) {
+            if (current == partition) {
+                // Became the append partition since it was picked; track it again
+                partitionOpened(partition, this);
+                return;
+            }
+            if (!partitions.remove(partition.epochDay, partition)) {
+                return;
+            }
+            for (Chunk chunk : partition.chunks) {
+                chunk.flush();
+            }
+            storedDays.add(partition.epochDay);
+        }
+        
+        private Path chunkFile(long day, int index) {
+            return locationDirectory.resolve(day + "-" + index + CHUNK_SUFFIX);
+        }
+        
+        private Chunk openChunk(long day, int index, boolean create) throws IOException {
+            if (locationDirectory == null) {
+                return new Chunk(ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN), true);
+            }
+            Files.createDirectories(locationDirectory);
+            // The mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(chunkFile(day, index),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                boolean isNew = channel.size() == 0;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK_BYTES);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                if (!isNew && buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+                    throw new IOException("Not a sensor history chunk: " + chunkFile(day, index));
+                }
+                return new Chunk(buffer, isNew || create);
+            }
+        }
+        
+        void flush() {
+            for (Partition partition : partitions.values()) {
+                for (Chunk chunk : partition.chunks) {
+                    chunk.flush();
+                }
+            }
+        }
+        
+        synchronized void close() {
+            for (Partition partition : partitions.values()) {
+                for (Chunk chunk : partition.chunks) {
+                    chunk.close();
+                }
+            }
+        }
+    }
+    
+    private static final class Partition {
+        final long epochDay;
+        volatile Chunk[] chunks;
+        
+        Partition(long epochDay, Chunk[] chunks) {
+            this.epochDay = epochDay;
+            this.chunks = chunks;
+        }
+    }
+    
+    private static final class Chunk {
+        final ByteBuffer buffer;
+        volatile int rowCount;
+        volatile boolean sorted;
+        private int lastTime;
+        
+        Chunk(ByteBuffer buffer, boolean fresh) {
+            this.buffer = buffer;
+            if (fresh && buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+                buffer.putInt(VERSION_OFFSET, VERSION);
+                buffer.putInt(ROW_COUNT_OFFSET, 0);
+                buffer.putInt(SORTED_OFFSET, 1);
+            }
+            int rows = buffer.getInt(ROW_COUNT_OFFSET);
+            this.sorted = buffer.getInt(SORTED_OFFSET) != 0;
+            this.lastTime = rows > 0 ? buffer.getInt(HEADER_BYTES + (rows - 1) * 4) : 0;
+            this.rowCount = rows;
+        }
+        
+        // Only called with the location's lock held
+        void append(int timeOfDay, SensorReading reading) {
+            int row = rowCount;
+            if (row > 0 && timeOfDay < lastTime && sorted) {
+                sorted = false;
+                buffer.putInt(SORTED_OFFSET, 0);
+            }
+            lastTime = Math.max(lastTime, timeOfDay);
+            
+            buffer.putInt(HEADER_BYTES + row * 4, timeOfDay);
+            buffer.putFloat(HEADER_BYTES + COLUMN_BYTES + row * 4, (float) reading.getSoilMoisture());
+            buffer.putFloat(HEADER_BYTES + COLUMN_BYTES * 2 + row * 4, (float) reading.getTemperature());
+            buffer.putFloat(HEADER_BYTES + COLUMN_BYTES * 3 + row * 4, (float) reading.getHumidity());
+            buffer.putFloat(HEADER_BYTES + COLUMN_BYTES * 4 + row * 4, (float) reading.getRainfall());
+            buffer.putFloat(HEADER_BYTES + COLUMN_BYTES * 5 + row * 4, (float) reading.getWindSpeed());
+            buffer.putFloat(HEADER_BYTES + COLUMN_BYTES * 6 + row * 4, (float) reading.getLightIntensity());
+            buffer.putInt(ROW_COUNT_OFFSET, row + 1);
+            // Publishes the row to concurrent scans
+            rowCount = row + 1;
+        }
+        
+        // First row with a time of day >= timeOfDay, for sorted chunks
+        int firstRowAtOrAfter(int timeOfDay, int rows) {
+            int low = 0;
+            int high = rows;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (buffer.getInt(HEADER_BYTES + mid * 4) < timeOfDay) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        
+        void flush() {
+            if (buffer instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) buffer).force();
+            }
+        }
+        
+        void close() {
+            flush();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Runs irrigation decisions for incoming sensor readings on a fixed set of
+// worker threads, without any JavaFX dependency.
+//
+// Each worker owns a bounded queue and readings are routed by location, so
+// readings from one probe are always handled in arrival order. When a queue
+// is full, submit() blocks the producer (and, through it, the socket or file
+// being read) until the worker catches up.
+public class SensorIngestPipeline implements AutoCloseable {
+    
+    // Called on a worker thread for every processed reading
+    public interface DecisionListener {
+        void onDecision(SensorReading reading, IrrigationDecision decision);
+    }
+    
+    private static final int MAX_BATCH = 256;
+    // Longest a producer holds off close() while waiting for queue space
+    private static final long ENQUEUE_SLICE_MILLIS = 100;
+    
+    private final SensorSimulator simulator;
+    private final List<BlockingQueue<SensorReading>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final List<DecisionListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong processedCount = new AtomicLong();
+    // Held shared while a reading is queued and exclusively by close(), so no
+    // reading can be queued after the workers have been told to stop
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    
+    public SensorIngestPipeline(SensorSimulator simulator, int workerCount, int queueCapacity) {
+        if (workerCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Worker count and queue capacity must be positive");
+        }
+        this.simulator = simulator;
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<SensorReading> queue = new ArrayBlockingQueue<>(queueCapacity);
+            queues.add(queue);
+            
+            Thread worker = new Thread(() -> runWorker(queue), "sensor-ingest-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+    
+    public void addListener(DecisionListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(DecisionListener listener) {
+        listeners.remove(listener);
+    }
+    
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+    
+    // Queues a reading, waiting for space if the worker is behind
+    public void submit(SensorReading reading) throws InterruptedException {
+        BlockingQueue<SensorReading> queue = queueFor(reading);
+        while (!enqueue(queue, reading, ENQUEUE_SLICE_MILLIS)) {
+            // Still full; checks again whether the pipeline was closed meanwhile
+        }
+    }
+    
+    // Queues a reading, giving up after the timeout; returns false if it was not queued
+    public boolean offer(SensorReading reading, long timeout, TimeUnit unit) throws InterruptedException {
+        BlockingQueue<SensorReading> queue = queueFor(reading);
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (enqueue(queue, reading, Math.max(0, Math.min(remainingMillis, ENQUEUE_SLICE_MILLIS)))) {
+                return true;
+            }
+            if (remainingMillis <= 0) {
+                return false;
+            }
+        }
+    }
+    
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+    
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+    
+    public int getQueuedCount() {
+        int queued = 0;
+        for (BlockingQueue<SensorReading> queue : queues) {
+            queued += queue.size();
+        }
+        return queued;
+    }
+    
+    // Stops accepting readings, lets the workers finish what is queued and waits
+    // for them. Close the sources feeding the pipeline first. If interrupted,
+    // returns at once with the interrupt flag set.
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            synchronized (this) {
+                if (!running) {
+                    return;
+                }
+                running = false;
+            }
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // Queues the reading if there is space within the wait; throws if the
+    // pipeline is closed
+    private boolean enqueue(BlockingQueue<SensorReading> queue, SensorReading reading, long waitMillis)
+            throws InterruptedException {
+        closeLock.readLock().lockInterruptibly();
+        try {
+            checkRunning();
+            if (!queue.offer(reading, waitMillis, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            submittedCount.incrementAndGet();
+            return true;
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+    
+    private void checkRunning() {
+        if (!running) {
+            throw new IllegalStateException("Pipeline is not running");
+        }
+    }
+    
+    private BlockingQueue<SensorReading> queueFor(SensorReading reading) {
+        return queues.get(reading.getLocationId() % queues.size());
+    }
+    
+    private void runWorker(BlockingQueue<SensorReading> queue) {
+        List<SensorReading> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                SensorReading first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            
+            for (SensorReading reading : batch) {
+                IrrigationDecision decision = simulator.makeIrrigationDecision(reading);
+                for (DecisionListener listener : listeners) {
+                    try {
+                        listener.onDecision(reading, decision);
+                    } catch (RuntimeException e) {
+                        System.err.println("Decision listener failed: " + e.getMessage());
+                    }
+                }
+            }
+            processedCount.addAndGet(batch.size());
+            batch.clear();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+// The measured values of a SensorReading, in the column order used by the
+// history store and the rollups
+public enum SensorMetric {
+    SOIL_MOISTURE("Soil Moisture", "%"),
+    TEMPERATURE("Temperature", "°C"),
+    HUMIDITY("Humidity", "%"),
+    RAINFALL("Rainfall", "mm"),
+    WIND_SPEED("Wind Speed", "km/h"),
+    LIGHT_INTENSITY("Light Intensity", "lux");
+    
+    private final String label;
+    private final String unit;
+    
+    SensorMetric(String label, String unit) {
+        this.label = label;
+        this.unit = unit;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    public String getUnit() {
+        return unit;
+    }
+    
+    public double of(SensorReading reading) {
+        switch (this) {
+            case SOIL_MOISTURE:
+                return reading.getSoilMoisture();
+            case TEMPERATURE:
+                return reading.getTemperature();
+            case HUMIDITY:
+                return reading.getHumidity();
+            case RAINFALL:
+                return reading.getRainfall();
+            case WIND_SPEED:
+                return reading.getWindSpeed();
+            default:
+                return reading.getLightIntensity();
+        }
+    }
+}
\ No newline at end of file
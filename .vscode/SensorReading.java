@@ -1,16 +1,23 @@
 public class SensorReading {
-    private String timestamp;
+    private long timestamp; // epoch milliseconds
     private double temperature;
     private double soilMoisture;
     private double humidity;
     private double rainfall;
     private double windSpeed;
     private double lightIntensity;
-    private String location;
+    private int locationId; // see LocationRegistry
     
-    public SensorReading(String timestamp, double temperature, double soilMoisture, 
+    public SensorReading(long timestamp, double temperature, double soilMoisture, 
                          double humidity, double rainfall, double windSpeed, 
                          double lightIntensity, String location) {
+        this(timestamp, temperature, soilMoisture, humidity, rainfall, windSpeed,
+             lightIntensity, LocationRegistry.idOf(location));
+    }
+    
+    public SensorReading(long timestamp, double temperature, double soilMoisture, 
+                         double humidity, double rainfall, double windSpeed, 
+                         double lightIntensity, int locationId) {
         this.timestamp = timestamp;
         this.temperature = temperature;
         this.soilMoisture = soilMoisture;
@@ -18,11 +25,11 @@ public class SensorReading {
         this.rainfall = rainfall;
         this.windSpeed = windSpeed;
         this.lightIntensity = lightIntensity;
-        this.location = location;
+        this.locationId = locationId;
     }
     
     // Getters
-    public String getTimestamp() {
+    public long getTimestamp() {
         return timestamp;
     }
     
@@ -51,12 +58,16 @@ public class SensorReading {
     }
     
     public String getLocation() {
-        return location;
+        return LocationRegistry.nameOf(locationId);
+    }
+    
+    public int getLocationId() {
+        return locationId;
     }
     
     @Override
     public String toString() {
         return String.format("Reading at %s: %.1f°C, %.1f%% moisture", 
-                             timestamp, temperature, soilMoisture);
+                             TimeFormats.formatTime(timestamp), temperature, soilMoisture);
     }
 }
\ No newline at end of file
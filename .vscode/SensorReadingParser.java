@@ -0,0 +1,70 @@
+// Parses the line format sent by field probes:
+//
+//   timestamp,location,temperature,soilMoisture,humidity,rainfall,windSpeed,lightIntensity
+//
+// for example "1742000132000,Field A - North,24.5,42.0,65.0,0.0,12.0,8500", with the
+// timestamp in epoch milliseconds. Fields are
+// found with indexOf instead of String.split so no regex or array is involved.
+// A parser reuses its field offsets and remembers the last location it saw
+// (a connection usually carries one probe), so each reading thread needs its own.
+public class SensorReadingParser {
+    
+    private static final int FIELD_COUNT = 8;
+    
+    private final int[] bounds = new int[FIELD_COUNT + 1];
+    private String lastLocation;
+    private int lastLocationId = -1;
+    
+    public SensorReading parse(String line) {
+        bounds[0] = -1;
+        int field = 1;
+        for (int i = line.indexOf(','); i >= 0 && field < FIELD_COUNT; i = line.indexOf(',', i + 1)) {
+            bounds[field++] = i;
+        }
+        if (field != FIELD_COUNT || line.indexOf(',', bounds[FIELD_COUNT - 1] + 1) >= 0) {
+            throw new IllegalArgumentException("Expected " + FIELD_COUNT + " comma separated fields: " + line);
+        }
+        bounds[FIELD_COUNT] = line.length();
+        
+        try {
+            return new SensorReading(
+                Long.parseLong(field(line, bounds, 0)),
+                Double.parseDouble(field(line, bounds, 2)),
+                Double.parseDouble(field(line, bounds, 3)),
+                Double.parseDouble(field(line, bounds, 4)),
+                Double.parseDouble(field(line, bounds, 5)),
+                Double.parseDouble(field(line, bounds, 6)),
+                Double.parseDouble(field(line, bounds, 7)),
+                locationId(line)
+            );
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in reading: " + line, e);
+        }
+    }
+    
+    // Looks the location up in LocationRegistry without copying it out of the
+    // line when it matches the previous reading's location
+    private int locationId(String line) {
+        int start = bounds[1] + 1;
+        int end = bounds[2];
+        while (start < end && line.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) == ' ') {
+            end--;
+        }
+        int length = end - start;
+        if (lastLocation == null || lastLocation.length() != length
+                || !line.regionMatches(start, lastLocation, 0, length)) {
+            String location = line.substring(start, end);
+            // Remembered only once registered, so a rejected name is rejected every time
+            lastLocationId = LocationRegistry.idOf(location);
+            lastLocation = location;
+        }
+        return lastLocationId;
+    }
+    
+    private static String field(String line, int[] bounds, int index) {
+        return line.substring(bounds[index] + 1, bounds[index + 1]).trim();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,226 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+// Saves sensor readings to the sensor_readings table behind the caller's
+// back. write() only queues the reading; a background thread inserts them in
+// JDBC batches of up to batchSize rows, or whatever has arrived once the
+// oldest queued reading has waited flushInterval, so callers never wait for
+// a database round-trip.
+//
+// While the database is unreachable the writer keeps its batch and retries
+// with growing pauses, up to MAX_ATTEMPTS times before dropping the batch;
+// readings that arrive while the queue is full are dropped too. Both are
+// counted rather than blocking ingestion. close() writes out everything
+// still queued, waiting at most CLOSE_TIMEOUT_MILLIS.
+public class SensorReadingWriter implements AutoCloseable {
+    
+    private static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS sensor_readings (" +
+            "id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+            "location VARCHAR(100) NOT NULL, " +
+            "timestamp_millis BIGINT NOT NULL, " +
+            "temperature DOUBLE NOT NULL, " +
+            "soil_moisture DOUBLE NOT NULL, " +
+            "humidity DOUBLE NOT NULL, " +
+            "rainfall DOUBLE NOT NULL, " +
+            "wind_speed DOUBLE NOT NULL, " +
+            "light_intensity DOUBLE NOT NULL, " +
+            "INDEX idx_sensor_readings_location_time (location, timestamp_millis)" +
+            ")";
+    private static final String INSERT_SQL =
+            "INSERT INTO sensor_readings (location, timestamp_millis, temperature, soil_moisture, humidity, " +
+            "rainfall, wind_speed, light_intensity) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final long MIN_RETRY_MILLIS = 1_000;
+    private static final long MAX_RETRY_MILLIS = 30_000;
+    // Attempts per batch before it is dropped
+    private static final int MAX_ATTEMPTS = 5;
+    // Attempts per batch once close() has been called, before the rest is given up
+    private static final int CLOSING_ATTEMPTS = 2;
+    // Longest close() waits for the backlog, e.g. while connections time out
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+    
+    private final DataSource dataSource;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<SensorReading> queue;
+    private final Thread writerThread;
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final CountDownLatch closeRequested = new CountDownLatch(1);
+    
+    public SensorReadingWriter(DataSource dataSource, int batchSize, long flushInterval, TimeUnit unit, int capacity) {
+        if (batchSize < 1 || capacity < batchSize || flushInterval <= 0) {
+            throw new IllegalArgumentException("Batch size, capacity and flush interval must be positive, capacity at least one batch");
+        }
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = unit.toNanos(flushInterval);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writerThread = new Thread(this::run, "sensor-reading-writer");
+        writerThread.setDaemon(true);
+    }
+    
+    // Schema step, run by SchemaMigrator
+    static void createTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_TABLE_SQL);
+        }
+    }
+    
+    public void start() {
+        writerThread.start();
+    }
+    
+    // Queues a reading; returns false (and counts it as dropped) if the queue is full
+    public boolean write(SensorReading reading) {
+        if (isClosing()) {
+            throw new IllegalStateException("Sensor reading writer is closed");
+        }
+        if (queue.offer(reading)) {
+            return true;
+        }
+        droppedCount.incrementAndGet();
+        return false;
+    }
+    
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+    
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+    
+    public int getPendingCount() {
+        return queue.size();
+    }
+    
+    // Stops accepting readings and waits for the queued ones to be written;
+    // gives up waiting after CLOSE_TIMEOUT_MILLIS and leaves the rest to the
+    // writer thread, which does not keep the JVM alive
+    @Override
+    public void close() {
+        closeRequested.countDown();
+        if (!writerThread.isAlive()) {
+            // Never started: write the backlog on the caller's thread
+            run();
+            return;
+        }
+        try {
+            writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            System.err.println("Stopped waiting for unsaved sensor readings (" + queue.size() + " queued besides the current batch)");
+        }
+    }
+    
+    private void run() {
+        List<SensorReading> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        int failures = 0;
+        while (true) {
+            boolean closing = isClosing();
+            try {
+                if (batch.isEmpty()) {
+                    SensorReading first = closing ? queue.poll() : queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        if (closing) {
+                            return;
+                        }
+                        continue;
+                    }
+                    batch.add(first);
+                    deadline = System.nanoTime() + flushIntervalNanos;
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                
+                // Wait for a full batch until the oldest reading is due
+                long wait = deadline - System.nanoTime();
+                if (batch.size() < batchSize && wait > 0 && !closing) {
+                    SensorReading next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            
+            try {
+                insert(batch);
+                writtenCount.addAndGet(batch.size());
+                batch.clear();
+                failures = 0;
+            } catch (SQLException e) {
+                failures++;
+                if (failures == 1) {
+                    System.err.println("Could not save sensor readings, will retry: " + e.getMessage());
+                }
+                if (closing && failures >= CLOSING_ATTEMPTS) {
+                    // Shutting down with the database out of reach; don't hold up the exit
+                    int lost = batch.size() + queue.size();
+                    System.err.println("Giving up on " + lost + " sensor readings: " + e.getMessage());
+                    droppedCount.addAndGet(lost);
+                    queue.clear();
+                    return;
+                }
+                if (failures >= MAX_ATTEMPTS) {
+                    // Make room for newer readings rather than retrying this batch forever
+                    System.err.println("Dropping " + batch.size() + " sensor readings after " + failures
+                            + " attempts: " + e.getMessage());
+                    droppedCount.addAndGet(batch.size());
+                    batch.clear();
+                    failures = 0;
+                    continue;
+                }
+                try {
+                    // Cut short by close()
+                    closeRequested.await(Math.min(MAX_RETRY_MILLIS, MIN_RETRY_MILLIS << Math.min(failures - 1, 5)),
+                            TimeUnit.MILLISECONDS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    private boolean isClosing() {
+        return closeRequested.getCount() == 0;
+    }
+    
+    private void insert(List<SensorReading> batch) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            conn.setAutoCommit(false);
+            for (SensorReading reading : batch) {
+                stmt.setString(1, reading.getLocation());
+                stmt.setLong(2, reading.getTimestamp());
+                stmt.setDouble(3, reading.getTemperature());
+                stmt.setDouble(4, reading.getSoilMoisture());
+                stmt.setDouble(5, reading.getHumidity());
+                stmt.setDouble(6, reading.getRainfall());
+                stmt.setDouble(7, reading.getWindSpeed());
+                stmt.setDouble(8, reading.getLightIntensity());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,332 @@
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Minute, hour and day summaries (min, max, average, last) of every
+// SensorMetric per location, updated as readings arrive. Charts read a fixed
+// number of buckets from here instead of scanning raw history.
+//
+// Each resolution is a ring of buckets aligned to local time in the given
+// zone (the system's by default), so an hour or day bucket is the hour or day
+// shown on its chart label; recording a reading is a handful of array writes
+// and old buckets are reused as time moves on. Across a daylight saving change
+// a local day has 23 or 25 hours, and the repeated hour shares one bucket.
+// Readings older than a resolution's retention are ignored by it.
+//
+// With a source store, a location's buckets are filled from the store's
+// recent history on a background thread, queued when the location is first
+// recorded or read (backfillInBackground() queues every registered location
+// at startup). The backfill takes the location's lock for an hour of history
+// at a time, so reads meanwhile wait at most that long and serve what the
+// buckets hold so far. Readings recorded before the backfill reaches the
+// present are left for it to pick up, so append readings to the store before
+// recording them here.
+public class SensorRollups {
+    
+    public enum Resolution {
+        MINUTE(60_000L, 24 * 60),
+        HOUR(3_600_000L, 31 * 24),
+        DAY(86_400_000L, 366);
+        
+        private final long widthMillis;
+        private final int retention;
+        
+        Resolution(long widthMillis, int retention) {
+            this.widthMillis = widthMillis;
+            this.retention = retention;
+        }
+        
+        public long getWidthMillis() {
+            return widthMillis;
+        }
+        
+        // Number of most recent buckets kept
+        public int getRetention() {
+            return retention;
+        }
+    }
+    
+    // Receives the non-empty buckets of a read, oldest first
+    public interface BucketVisitor {
+        void visit(long bucketStart, double min, double max, double average, double last);
+    }
+    
+    private static final int METRIC_COUNT = SensorMetric.values().length;
+    private static final Resolution[] RESOLUTIONS = Resolution.values();
+    private static final long BACKFILL_MILLIS = 31 * Resolution.DAY.widthMillis;
+    // History scanned per hold of a location's lock
+    private static final long BACKFILL_SLICE_MILLIS = Resolution.HOUR.widthMillis;
+    
+    private final SensorHistoryStore source;
+    private final ZoneRules zone;
+    // Backfills one location at a time; null without a source
+    private final ExecutorService backfills;
+    private volatile LocationRollups[] locations = new LocationRollups[16];
+    
+    public SensorRollups() {
+        this(null);
+    }
+    
+    public SensorRollups(SensorHistoryStore source) {
+        this(source, ZoneId.systemDefault());
+    }
+    
+    public SensorRollups(SensorHistoryStore source, ZoneId zone) {
+        this.source = source;
+        this.zone = zone.getRules();
+        this.backfills = source == null ? null : Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "rollup-backfill");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+    
+    // Queues the backfill of every registered location; completes once they
+    // are all loaded. Without a source there is nothing to load.
+    public CompletableFuture<Void> backfillInBackground() {
+        if (backfills == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        for (int locationId = 0; locationId < LocationRegistry.size(); locationId++) {
+            locationRollups(locationId);
+        }
+        return CompletableFuture.runAsync(() -> { }, backfills);
+    }
+    
+    public void record(SensorReading reading) {
+        locationRollups(reading.getLocationId()).record(reading.getTimestamp(),
+                reading.getSoilMoisture(), reading.getTemperature(), reading.getHumidity(),
+                reading.getRainfall(), reading.getWindSpeed(), reading.getLightIntensity(), false);
+    }
+    
+    // Visits the buckets of the given number of intervals ending with the one
+    // containing toMillis, skipping intervals without readings. Bucket starts
+    // are epoch milliseconds. Returns the number of buckets visited.
+    public int read(int locationId, Resolution resolution, SensorMetric metric, long toMillis, int points,
+                    BucketVisitor visitor) {
+        if (points > resolution.retention) {
+            throw new IllegalArgumentException(resolution + " keeps only " + resolution.retention + " buckets");
+        }
+        return locationRollups(locationId).read(resolution, metric.ordinal(), toMillis, points, visitor);
+    }
+    
+    // The instant a local bucket starts, for buckets outside the offset span
+    // at hand; a start inside a daylight saving gap is read with the
+    // offset before the gap
+    private long fromLocal(long localMillis) {
+        LocalDateTime local = LocalDateTime.ofEpochSecond(Math.floorDiv(localMillis, 1000L), 0, ZoneOffset.UTC);
+        return localMillis - zone.getOffset(local).getTotalSeconds() * 1000L;
+    }
+    
+    // An interval of instants over which the zone's offset does not change
+    private static final class OffsetSpan {
+        final long from;
+        final long until;
+        final long offsetMillis;
+        
+        OffsetSpan(long from, long until, long offsetMillis) {
+            this.from = from;
+            this.until = until;
+            this.offsetMillis = offsetMillis;
+        }
+        
+        static OffsetSpan containing(ZoneRules zone, long epochMillis) {
+            Instant instant = Instant.ofEpochMilli(epochMillis);
+            if (zone.isFixedOffset()) {
+                return new OffsetSpan(Long.MIN_VALUE, Long.MAX_VALUE, zone.getOffset(instant).getTotalSeconds() * 1000L);
+            }
+            ZoneOffsetTransition previous = zone.previousTransition(instant.plusMillis(1));
+            ZoneOffsetTransition next = zone.nextTransition(instant);
+            return new OffsetSpan(
+                    previous == null ? Long.MIN_VALUE : previous.getInstant().toEpochMilli(),
+                    next == null ? Long.MAX_VALUE : next.getInstant().toEpochMilli(),
+                    zone.getOffset(instant).getTotalSeconds() * 1000L);
+        }
+    }
+    
+    private LocationRollups locationRollups(int locationId) {
+        LocationRollups[] current = locations;
+        if (locationId < current.length && current[locationId] != null) {
+            return current[locationId];
+        }
+        synchronized (this) {
+            current = locations;
+            if (locationId >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, locationId + 1));
+            }
+            LocationRollups created = null;
+            if (current[locationId] == null) {
+                created = new LocationRollups(locationId);
+                current[locationId] = created;
+            }
+            locations = current;
+            if (created != null && backfills != null) {
+                backfills.execute(created::backfill);
+            }
+            return current[locationId];
+        }
+    }
+    
+    private final class LocationRollups {
+        private final int locationId;
+        private final Ring[] rings = new Ring[RESOLUTIONS.length];
+        private boolean loaded;
+        // The zone's offset over the span of the latest reading, so most
+        // readings are shifted to local time without a lookup in the zone rules
+        private OffsetSpan offsetSpan = new OffsetSpan(0, 0, 0);
+        
+        LocationRollups(int locationId) {
+            this.locationId = locationId;
+            for (Resolution resolution : RESOLUTIONS) {
+                rings[resolution.ordinal()] = new Ring(resolution);
+            }
+            loaded = source == null;
+        }
+        
+        synchronized void record(long timestamp, double soilMoisture, double temperature, double humidity,
+                                 double rainfall, double windSpeed, double lightIntensity, boolean backfill) {
+            if (!loaded && !backfill) {
+                return;
+            }
+            long localTime = toLocal(timestamp);
+            for (Ring ring : rings) {
+                ring.record(localTime, soilMoisture, temperature, humidity, rainfall, windSpeed, lightIntensity);
+            }
+        }
+        
+        // Fills the buckets from the source, oldest first, an hour at a time;
+        // live readings are recorded from when the backfill reaches the end
+        void backfill() {
+            long now = System.currentTimeMillis();
+            long end = now + Resolution.DAY.widthMillis;
+            try {
+                for (long from = now - BACKFILL_MILLIS; from < end; from += BACKFILL_SLICE_MILLIS) {
+                    long to = Math.min(from + BACKFILL_SLICE_MILLIS, end);
+                    synchronized (this) {
+                        source.scan(locationId, from, to,
+                                (timestamp, soilMoisture, temperature, humidity, rainfall, windSpeed, lightIntensity) ->
+                                        record(timestamp, soilMoisture, temperature, humidity, rainfall, windSpeed,
+                                               lightIntensity, true));
+                        // In the same hold as the last slice, so no reading falls in between
+                        loaded = to == end;
+                    }
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Could not load rollups of location " + locationId + ": " + e.getMessage());
+                synchronized (this) {
+                    loaded = true;
+                }
+            }
+        }
+        
+        synchronized int read(Resolution resolution, int metric, long toMillis, int points, BucketVisitor visitor) {
+            return rings[resolution.ordinal()].read(metric, toLocal(toMillis), offsetSpan, points, visitor);
+        }
+        
+        // Epoch milliseconds shifted by the zone's offset at that instant
+        private long toLocal(long epochMillis) {
+            OffsetSpan span = offsetSpan;
+            if (epochMillis < span.from || epochMillis >= span.until) {
+                span = OffsetSpan.containing(zone, epochMillis);
+                offsetSpan = span;
+            }
+            return epochMillis + span.offsetMillis;
+        }
+    }
+    
+    // Buckets of one resolution, indexed by local time; metric values of slot s
+    // are at s * METRIC_COUNT + metric
+    private final class Ring {
+        private final long width;
+        private final int capacity;
+        private final long[] bucket;
+        private final int[] count;
+        private final long[] lastTime;
+        private final float[] min;
+        private final float[] max;
+        private final float[] last;
+        private final double[] sum;
+        
+        Ring(Resolution resolution) {
+            width = resolution.widthMillis;
+            capacity = resolution.retention;
+            bucket = new long[capacity];
+            Arrays.fill(bucket, Long.MIN_VALUE);
+            count = new int[capacity];
+            lastTime = new long[capacity];
+            min = new float[capacity * METRIC_COUNT];
+            max = new float[capacity * METRIC_COUNT];
+            last = new float[capacity * METRIC_COUNT];
+            sum = new double[capacity * METRIC_COUNT];
+        }
+        
+        void record(long timestamp, double soilMoisture, double temperature, double humidity,
+                    double rainfall, double windSpeed, double lightIntensity) {
+            long index = Math.floorDiv(timestamp, width);
+            int slot = (int) Math.floorMod(index, (long) capacity);
+            if (bucket[slot] != index) {
+                if (bucket[slot] > index) {
+                    return; // Older than this ring's retention
+                }
+                bucket[slot] = index;
+                count[slot] = 0;
+                lastTime[slot] = Long.MIN_VALUE;
+                int base = slot * METRIC_COUNT;
+                Arrays.fill(min, base, base + METRIC_COUNT, Float.POSITIVE_INFINITY);
+                Arrays.fill(max, base, base + METRIC_COUNT, Float.NEGATIVE_INFINITY);
+                Arrays.fill(sum, base, base + METRIC_COUNT, 0.0);
+            }
+            
+            boolean latest = timestamp >= lastTime[slot];
+            if (latest) {
+                lastTime[slot] = timestamp;
+            }
+            count[slot]++;
+            int base = slot * METRIC_COUNT;
+            update(base + SensorMetric.SOIL_MOISTURE.ordinal(), soilMoisture, latest);
+            update(base + SensorMetric.TEMPERATURE.ordinal(), temperature, latest);
+            update(base + SensorMetric.HUMIDITY.ordinal(), humidity, latest);
+            update(base + SensorMetric.RAINFALL.ordinal(), rainfall, latest);
+            update(base + SensorMetric.WIND_SPEED.ordinal(), windSpeed, latest);
+            update(base + SensorMetric.LIGHT_INTENSITY.ordinal(), lightIntensity, latest);
+        }
+        
+        private void update(int index, double value, boolean latest) {
+            float v = (float) value;
+            min[index] = Math.min(min[index], v);
+            max[index] = Math.max(max[index], v);
+            sum[index] += value;
+            if (latest) {
+                last[index] = v;
+            }
+        }
+        
+        // Bucket starts inside the given span are shifted back with its offset
+        int read(int metric, long localTo, OffsetSpan span, int points, BucketVisitor visitor) {
+            long end = Math.floorDiv(localTo, width);
+            int visited = 0;
+            for (long index = end - points + 1; index <= end; index++) {
+                int slot = (int) Math.floorMod(index, (long) capacity);
+                if (bucket[slot] != index || count[slot] == 0) {
+                    continue;
+                }
+                int value = slot * METRIC_COUNT + metric;
+                long start = index * width - span.offsetMillis;
+                if (start < span.from || start >= span.until) {
+                    start = fromLocal(index * width);
+                }
+                visitor.visit(start, min[value], max[value], sum[value] / count[slot], last[value]);
+                visited++;
+            }
+            return visited;
+        }
+    }
+}
\ No newline at end of file
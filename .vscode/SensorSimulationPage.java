@@ -1,7 +1,5 @@
 import javafx.application.Application;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
@@ -18,18 +16,24 @@ import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
-public class SensorSimulationPage {
+public class SensorSimulationPage implements Page {
     
     private static final String PRIMARY_COLOR = "#1A5F7A";
     private static final String SECONDARY_COLOR = "#2E8B57";
     private static final String ACCENT_COLOR = "#FF6347";
-    private static final String BACKGROUND_COLOR = "#F8F9FA";
+    
+    // Readings kept for the moisture chart
+    private static final int CHART_HISTORY = 3600;
     
     private MainApp mainApp;
+    private UiUpdateBus localUiUpdates;
+    // The decision panel and chart are redrawn at most once per frame
+    private UiUpdateBus.Slot<IrrigationDecision> decisionDisplay;
+    private UiUpdateBus.Slot<Boolean> chartRefresh;
     
     // Simulation controls
     private ComboBox<String> locationDropdown;
@@ -47,12 +51,20 @@ public class SensorSimulationPage {
     
     // Data table
     private TableView<SensorReading> dataTable;
-    private ObservableList<SensorReading> sensorReadings = FXCollections.observableArrayList();
+    private final RingBufferObservableList<SensorReading> sensorReadings = new RingBufferObservableList<>(10);
     
     // Chart
     private LineChart<String, Number> soilMoistureChart;
     private XYChart.Series<String, Number> moistureSeries;
     
+    // Recent moisture readings, oldest first from chartStart; the chart shows
+    // a downsampled view of them
+    private final long[] chartTimes = new long[CHART_HISTORY];
+    private final double[] chartMoisture = new double[CHART_HISTORY];
+    private int chartStart;
+    private int chartCount;
+    private int chartPointBudget;
+    
     // Simulation
     private Random random = new Random();
     private SensorSimulator simulator = new SensorSimulator();
@@ -66,16 +78,20 @@ public class SensorSimulationPage {
     }
     
     public void start(Stage primaryStage) {
-        Scene scene = new Scene(createContent(), 1000, 800);
+        Scene scene = Styles.apply(new Scene(createContent(), 1000, 800));
         primaryStage.setTitle("AgriTech Smart Irrigation System - Sensor Simulation");
         primaryStage.setScene(scene);
         primaryStage.show();
     }
     
+    @Override
     public Parent createContent() {
         BorderPane root = new BorderPane();
         root.setPadding(new Insets(20));
-        root.setStyle("-fx-background-color: " + BACKGROUND_COLOR + ";");
+        root.getStyleClass().add("page");
+        
+        decisionDisplay = uiUpdates().slot(this::updateDecisionPanel);
+        chartRefresh = uiUpdates().slot(refresh -> updateChart());
         
         // Header
         VBox headerBox = createHeader();
@@ -102,12 +118,7 @@ public class SensorSimulationPage {
         headerContainer.setSpacing(20);
         
         Button backButton = new Button("← Back to Dashboard");
-        backButton.setStyle(
-            "-fx-background-color: transparent;" +
-            "-fx-text-fill: " + PRIMARY_COLOR + ";" +
-            "-fx-font-weight: bold;" +
-            "-fx-cursor: hand;"
-        );
+        backButton.getStyleClass().add("back-button");
         
         // We'll use this event later when we set the main application reference
         backButton.setOnAction(e -> {
@@ -140,7 +151,7 @@ public class SensorSimulationPage {
     private VBox createControlsPanel() {
         VBox panel = new VBox(15);
         panel.setPadding(new Insets(10));
-        panel.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        panel.getStyleClass().add("card");
         panel.setPrefWidth(280);
         
         Text controlsTitle = new Text("Simulation Controls");
@@ -149,7 +160,7 @@ public class SensorSimulationPage {
         // Location selector
         Label locationLabel = new Label("Location:");
         locationDropdown = new ComboBox<>();
-        locationDropdown.getItems().addAll("Field A - North", "Field A - South", "Field B - East", "Field B - West");
+        locationDropdown.getItems().addAll(LocationRegistry.defaultLocations());
         locationDropdown.setValue("Field A - North");
         locationDropdown.setMaxWidth(Double.MAX_VALUE);
         
@@ -166,21 +177,11 @@ public class SensorSimulationPage {
         buttonBox.setPadding(new Insets(10, 0, 5, 0));
         
         Button randomizeButton = new Button("Randomize");
-        randomizeButton.setStyle(
-            "-fx-background-color: " + PRIMARY_COLOR + ";" +
-            "-fx-text-fill: white;" +
-            "-fx-padding: 8 15;" +
-            "-fx-background-radius: 5;"
-        );
+        randomizeButton.getStyleClass().add("primary-button");
         randomizeButton.setOnAction(e -> randomizeValues());
         
         Button generateButton = new Button("Generate Reading");
-        generateButton.setStyle(
-            "-fx-background-color: " + SECONDARY_COLOR + ";" +
-            "-fx-text-fill: white;" +
-            "-fx-padding: 8 15;" +
-            "-fx-background-radius: 5;"
-        );
+        generateButton.getStyleClass().add("secondary-button");
         generateButton.setOnAction(e -> generateReading());
         
         buttonBox.getChildren().addAll(randomizeButton, generateButton);
@@ -220,7 +221,7 @@ public class SensorSimulationPage {
     private VBox createDecisionPanel() {
         VBox panel = new VBox(15);
         panel.setPadding(new Insets(20));
-        panel.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        panel.getStyleClass().add("card");
         
         Text decisionTitle = new Text("Irrigation Decision");
         decisionTitle.setFont(Font.font("Arial", FontWeight.BOLD, 18));
@@ -238,7 +239,6 @@ public class SensorSimulationPage {
         
         irrigationProgress = new ProgressBar(0);
         irrigationProgress.setPrefWidth(Double.MAX_VALUE);
-        irrigationProgress.setStyle("-fx-accent: " + SECONDARY_COLOR + ";");
         
         panel.getChildren().addAll(decisionTitle, new Separator(), decisionText, reasonText, progressLabel, irrigationProgress);
         return panel;
@@ -247,7 +247,7 @@ public class SensorSimulationPage {
     private VBox createChartPanel() {
         VBox panel = new VBox(10);
         panel.setPadding(new Insets(20));
-        panel.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        panel.getStyleClass().add("card");
         
         Text chartTitle = new Text("Soil Moisture Trend");
         chartTitle.setFont(Font.font("Arial", FontWeight.BOLD, 18));
@@ -262,6 +262,11 @@ public class SensorSimulationPage {
         soilMoistureChart.setTitle("Soil Moisture Over Time");
         soilMoistureChart.setAnimated(false);
         soilMoistureChart.setCreateSymbols(true);
+        soilMoistureChart.widthProperty().addListener((obs, oldWidth, newWidth) -> {
+            if (Downsampler.pointBudget(newWidth.doubleValue()) != chartPointBudget) {
+                updateChart();
+            }
+        });
         
         moistureSeries = new XYChart.Series<>();
         moistureSeries.setName("Soil Moisture");
@@ -274,7 +279,7 @@ public class SensorSimulationPage {
     private VBox createDataPanel() {
         VBox panel = new VBox(10);
         panel.setPadding(new Insets(10));
-        panel.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        panel.getStyleClass().add("card");
         panel.setPrefWidth(300);
         
         Text dataTitle = new Text("Recent Readings");
@@ -286,7 +291,8 @@ public class SensorSimulationPage {
         dataTable.setPrefHeight(500);
         
         TableColumn<SensorReading, String> timeCol = new TableColumn<>("Time");
-        timeCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getTimestamp()));
+        timeCol.setCellValueFactory(data -> new SimpleStringProperty(
+                TimeFormats.formatTime(data.getValue().getTimestamp())));
         timeCol.setPrefWidth(120);
         
         TableColumn<SensorReading, String> moistureCol = new TableColumn<>("Moisture");
@@ -302,12 +308,7 @@ public class SensorSimulationPage {
         dataTable.getColumns().addAll(timeCol, moistureCol, tempCol);
         
         Button clearButton = new Button("Clear Data");
-        clearButton.setStyle(
-            "-fx-background-color: #6C757D;" +
-            "-fx-text-fill: white;" +
-            "-fx-padding: 8 15;" +
-            "-fx-background-radius: 5;"
-        );
+        clearButton.getStyleClass().add("muted-button");
         clearButton.setOnAction(e -> clearData());
         clearButton.setMaxWidth(Double.MAX_VALUE);
         
@@ -358,7 +359,7 @@ public class SensorSimulationPage {
     private void generateReading() {
         // Create reading from current slider values
         SensorReading reading = new SensorReading(
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")),
+            System.currentTimeMillis(),
             temperatureSlider.getValue(),
             soilMoistureSlider.getValue(),
             humiditySlider.getValue(),
@@ -368,31 +369,67 @@ public class SensorSimulationPage {
             locationDropdown.getValue()
         );
         
-        // Add to table (limit to last 10 readings)
-        sensorReadings.add(0, reading);
-        if (sensorReadings.size() > 10) {
-            sensorReadings.remove(10);
-        }
+        // Made up, so it stays on this page, out of the recorded history, the
+        // database and auto mode. Add to table, which keeps the last 10 readings
+        sensorReadings.addFirst(reading);
         
         // Update chart
-        if (moistureSeries.getData().size() >= 10) {
-            moistureSeries.getData().remove(0);
+        int slot = (chartStart + chartCount) % CHART_HISTORY;
+        if (chartCount == CHART_HISTORY) {
+            chartStart = (chartStart + 1) % CHART_HISTORY;
+        } else {
+            chartCount++;
         }
-        moistureSeries.getData().add(new XYChart.Data<>(reading.getTimestamp(), reading.getSoilMoisture()));
+        chartTimes[slot] = reading.getTimestamp();
+        chartMoisture[slot] = reading.getSoilMoisture();
+        chartRefresh.post(Boolean.TRUE);
         
         // Make irrigation decision
         IrrigationDecision decision = simulator.makeIrrigationDecision(reading);
         
         // Update decision panel
-        updateDecisionPanel(decision);
+        decisionDisplay.post(decision);
+    }
+    
+    private UiUpdateBus uiUpdates() {
+        if (mainApp != null) {
+            return mainApp.getUiUpdates();
+        }
+        if (localUiUpdates == null) {
+            localUiUpdates = new UiUpdateBus();
+        }
+        return localUiUpdates;
+    }
+    
+    // Replaces the series with the kept readings, downsampled to the chart width
+    private void updateChart() {
+        double[] times = new double[chartCount];
+        double[] moisture = new double[chartCount];
+        for (int i = 0; i < chartCount; i++) {
+            int slot = (chartStart + i) % CHART_HISTORY;
+            times[i] = chartTimes[slot];
+            moisture[i] = chartMoisture[slot];
+        }
+        
+        chartPointBudget = Downsampler.pointBudget(soilMoistureChart.getWidth());
+        int[] selected = new int[chartPointBudget];
+        int points = Downsampler.largestTriangleThreeBuckets(times, moisture, chartCount, chartPointBudget, selected);
+        
+        List<XYChart.Data<String, Number>> data = new ArrayList<>(points);
+        for (int i = 0; i < points; i++) {
+            int index = selected[i];
+            data.add(new XYChart.Data<>(TimeFormats.formatTime((long) times[index]), moisture[index]));
+        }
+        soilMoistureChart.setCreateSymbols(Downsampler.showSymbols(points));
+        moistureSeries.getData().setAll(data);
     }
     
     private void updateDecisionPanel(IrrigationDecision decision) {
-        decisionText.setText(decision.getDecision());
+        decisionText.setText(decision.getDecision().getLabel());
         reasonText.setText(decision.getReason());
         
         // Set color based on decision
-        if (decision.getDecision().contains("Irrigate")) {
+        if (decision.getDecision().requiresIrrigation()) {
             decisionText.setFill(Color.web(SECONDARY_COLOR));
             irrigationProgress.setProgress(decision.getIrrigationAmount() / 100.0);
         } else {
@@ -403,11 +440,12 @@ public class SensorSimulationPage {
     
     private void clearData() {
         sensorReadings.clear();
+        chartStart = 0;
+        chartCount = 0;
         moistureSeries.getData().clear();
         decisionText.setText("No data available");
         decisionText.setFill(Color.web("#6C757D"));
         reasonText.setText("Generate a reading to see the irrigation decision");
         irrigationProgress.setProgress(0);
     }
-}
-        
\ No newline at end of file
+}
\ No newline at end of file
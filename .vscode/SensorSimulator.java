@@ -1,78 +1,112 @@
 public class SensorSimulator {
     // Thresholds for irrigation decisions
-    private static final double MOISTURE_LOW_THRESHOLD = 30.0;
-    private static final double MOISTURE_MEDIUM_THRESHOLD = 50.0;
-    private static final double MOISTURE_HIGH_THRESHOLD = 70.0;
+    static final double MOISTURE_LOW_THRESHOLD = 30.0;
+    static final double MOISTURE_MEDIUM_THRESHOLD = 50.0;
+    static final double MOISTURE_HIGH_THRESHOLD = 70.0;
     
     // Temperature thresholds
-    private static final double TEMP_LOW_THRESHOLD = 15.0;
-    private static final double TEMP_HIGH_THRESHOLD = 30.0;
+    static final double TEMP_LOW_THRESHOLD = 15.0;
+    static final double TEMP_HIGH_THRESHOLD = 30.0;
     
     // Rainfall thresholds
-    private static final double RAINFALL_THRESHOLD = 5.0;
+    static final double RAINFALL_THRESHOLD = 5.0;
     
     public IrrigationDecision makeIrrigationDecision(SensorReading reading) {
-        String decision;
-        String reason;
-        double irrigationAmount = 0.0;
-        
-        // Check recent rainfall
-        if (reading.getRainfall() > RAINFALL_THRESHOLD) {
-            decision = "Do Not Irrigate";
-            reason = String.format("Recent rainfall of %.1fmm exceeds threshold (%.1fmm)", 
-                                  reading.getRainfall(), RAINFALL_THRESHOLD);
-            return new IrrigationDecision(decision, reason, irrigationAmount);
+        double soilMoisture = reading.getSoilMoisture();
+        double temperature = reading.getTemperature();
+        double rainfall = reading.getRainfall();
+        return new IrrigationDecision(classify(soilMoisture, temperature, rainfall), soilMoisture, temperature, rainfall);
+    }
+    
+    // Evaluates a columnar block of readings. Element i of each input array
+    // belongs to the same reading; the rule code (see IrrigationRule.fromCode)
+    // and irrigation amount for it are written to ruleCodes[i] and
+    // irrigationAmounts[i]. Nothing is allocated per reading, and no reason
+    // text is built - use describeDecision for the few indexes that need one.
+    public void makeIrrigationDecisions(double[] soilMoisture, double[] temperature, double[] rainfall,
+                                        int count, byte[] ruleCodes, double[] irrigationAmounts) {
+        if (count < 0 || soilMoisture.length < count || temperature.length < count || rainfall.length < count
+                || ruleCodes.length < count || irrigationAmounts.length < count) {
+            throw new IllegalArgumentException("Batch arrays are shorter than count " + count);
         }
         
-        // Check soil moisture levels
-        if (reading.getSoilMoisture() < MOISTURE_LOW_THRESHOLD) {
-            decision = "Irrigate Immediately";
-            reason = String.format("Soil moisture critically low at %.1f%% (below %.1f%%)", 
-                                  reading.getSoilMoisture(), MOISTURE_LOW_THRESHOLD);
-            
-            // Calculate irrigation amount based on temperature
-            if (reading.getTemperature() > TEMP_HIGH_THRESHOLD) {
-                irrigationAmount = 80.0; // Heavy irrigation for high temperatures
-                reason += " and high temperature";
-            } else if (reading.getTemperature() < TEMP_LOW_THRESHOLD) {
-                irrigationAmount = 50.0; // Medium irrigation for low temperatures
-                reason += " with low temperature";
-            } else {
-                irrigationAmount = 65.0; // Normal irrigation
-            }
-        } 
-        else if (reading.getSoilMoisture() < MOISTURE_MEDIUM_THRESHOLD) {
-            decision = "Irrigate Soon";
-            reason = String.format("Soil moisture low at %.1f%% (below %.1f%%)", 
-                                  reading.getSoilMoisture(), MOISTURE_MEDIUM_THRESHOLD);
-            
-            // Calculate irrigation amount based on temperature
-            if (reading.getTemperature() > TEMP_HIGH_THRESHOLD) {
-                irrigationAmount = 60.0;
-                reason += " with high temperature";
-            } else {
-                irrigationAmount = 40.0;
-            }
+        for (int i = 0; i < count; i++) {
+            int index = bandIndex(soilMoisture[i], temperature[i], rainfall[i]);
+            ruleCodes[i] = RULE_CODE_TABLE[index];
+            irrigationAmounts[i] = IRRIGATION_AMOUNT_TABLE[index];
         }
-        else if (reading.getSoilMoisture() < MOISTURE_HIGH_THRESHOLD) {
-            decision = "Monitor";
-            reason = String.format("Soil moisture adequate at %.1f%% (between %.1f%% and %.1f%%)", 
-                                  reading.getSoilMoisture(), MOISTURE_MEDIUM_THRESHOLD, MOISTURE_HIGH_THRESHOLD);
-            irrigationAmount = 0.0;
+    }
+    
+    // Builds the reason text for one reading of a block evaluated by makeIrrigationDecisions
+    public String describeDecision(double[] soilMoisture, double[] temperature, double[] rainfall,
+                                   byte[] ruleCodes, int index) {
+        return IrrigationRule.fromCode(ruleCodes[index])
+                .formatReason(soilMoisture[index], temperature[index], rainfall[index]);
+    }
+    
+    static IrrigationRule classify(double soilMoisture, double temperature, double rainfall) {
+        return DECISION_TABLE[bandIndex(soilMoisture, temperature, rainfall)];
+    }
+    
+    // Readings are quantized into bands split at the thresholds above, and the
+    // rule for every band combination is worked out once, so a decision is a
+    // single table lookup. The band functions compare without branching on the
+    // result, and a NaN lands in the same band the old if/else chain gave it.
+    private static final int MOISTURE_BANDS = 4;     // critical, low, adequate, high
+    private static final int TEMPERATURE_BANDS = 3;  // low, normal, high
+    private static final int RAINFALL_BANDS = 2;     // dry, recent rainfall
+    
+    private static final IrrigationRule[] DECISION_TABLE = new IrrigationRule[RAINFALL_BANDS * MOISTURE_BANDS * TEMPERATURE_BANDS];
+    private static final byte[] RULE_CODE_TABLE = new byte[DECISION_TABLE.length];
+    private static final double[] IRRIGATION_AMOUNT_TABLE = new double[DECISION_TABLE.length];
+    
+    static {
+        for (int rainfallBand = 0; rainfallBand < RAINFALL_BANDS; rainfallBand++) {
+            for (int moistureBand = 0; moistureBand < MOISTURE_BANDS; moistureBand++) {
+                for (int temperatureBand = 0; temperatureBand < TEMPERATURE_BANDS; temperatureBand++) {
+                    int index = (rainfallBand * MOISTURE_BANDS + moistureBand) * TEMPERATURE_BANDS + temperatureBand;
+                    IrrigationRule rule = ruleForBands(rainfallBand, moistureBand, temperatureBand);
+                    DECISION_TABLE[index] = rule;
+                    RULE_CODE_TABLE[index] = (byte) rule.getCode();
+                    IRRIGATION_AMOUNT_TABLE[index] = rule.getIrrigationAmount();
+                }
+            }
         }
-        else {
-            decision = "Do Not Irrigate";
-            reason = String.format("Soil moisture high at %.1f%% (above %.1f%%)", 
-                                  reading.getSoilMoisture(), MOISTURE_HIGH_THRESHOLD);
-            irrigationAmount = 0.0;
+    }
+    
+    private static int bandIndex(double soilMoisture, double temperature, double rainfall) {
+        int rainfallBand = rainfall > RAINFALL_THRESHOLD ? 1 : 0;
+        int moistureBand = 3 - ((soilMoisture < MOISTURE_HIGH_THRESHOLD ? 1 : 0)
+                + (soilMoisture < MOISTURE_MEDIUM_THRESHOLD ? 1 : 0)
+                + (soilMoisture < MOISTURE_LOW_THRESHOLD ? 1 : 0));
+        int temperatureBand = 1 + (temperature > TEMP_HIGH_THRESHOLD ? 1 : 0) - (temperature < TEMP_LOW_THRESHOLD ? 1 : 0);
+        return (rainfallBand * MOISTURE_BANDS + moistureBand) * TEMPERATURE_BANDS + temperatureBand;
+    }
+    
+    private static IrrigationRule ruleForBands(int rainfallBand, int moistureBand, int temperatureBand) {
+        // Check recent rainfall
+        if (rainfallBand == 1) {
+            return IrrigationRule.RECENT_RAINFALL;
         }
         
-        // Adjust for high temperature
-        if (reading.getTemperature() > TEMP_HIGH_THRESHOLD && irrigationAmount > 0) {
-            irrigationAmount *= 1.2; // Increase irrigation by 20% for high temperatures
-            irrigationAmount = Math.min(irrigationAmount, 100.0); // Cap at 100%
+        // Check soil moisture levels, then pick the amount based on temperature
+        switch (moistureBand) {
+            case 0:
+                if (temperatureBand == 2) {
+                    return IrrigationRule.CRITICAL_MOISTURE_HIGH_TEMPERATURE;
+                } else if (temperatureBand == 0) {
+                    return IrrigationRule.CRITICAL_MOISTURE_LOW_TEMPERATURE;
+                }
+                return IrrigationRule.CRITICAL_MOISTURE;
+            case 1:
+                if (temperatureBand == 2) {
+                    return IrrigationRule.LOW_MOISTURE_HIGH_TEMPERATURE;
+                }
+                return IrrigationRule.LOW_MOISTURE;
+            case 2:
+                return IrrigationRule.ADEQUATE_MOISTURE;
+            default:
+                return IrrigationRule.HIGH_MOISTURE;
         }
-        
-        return new IrrigationDecision(decision, reason, irrigationAmount);
     }
 }
\ No newline at end of file
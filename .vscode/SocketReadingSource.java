@@ -0,0 +1,103 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Accepts probe connections on a local TCP port. Every connection gets its
+// own thread that reads one reading per line and submits it to the pipeline;
+// while the pipeline is full the thread stops reading, so TCP flow control
+// pushes back on the probe.
+public class SocketReadingSource implements AutoCloseable {
+    
+    private final SensorIngestPipeline pipeline;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong rejectedLines = new AtomicLong();
+    private final Thread acceptThread;
+    
+    public SocketReadingSource(SensorIngestPipeline pipeline, int port) throws IOException {
+        this.pipeline = pipeline;
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        this.acceptThread = new Thread(this::acceptConnections, "sensor-socket-accept");
+        acceptThread.setDaemon(true);
+    }
+    
+    public void start() {
+        acceptThread.start();
+    }
+    
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+    
+    public long getRejectedLines() {
+        return rejectedLines.get();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+    
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.add(socket);
+                Thread reader = new Thread(() -> readConnection(socket),
+                        "sensor-socket-" + socket.getPort());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Sensor socket accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private void readConnection(Socket socket) {
+        SensorReadingParser parser = new SensorReadingParser();
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 64 * 1024)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    pipeline.submit(parser.parse(line));
+                } catch (IllegalArgumentException e) {
+                    rejectedLines.incrementAndGet();
+                }
+            }
+        } catch (SocketException e) {
+            // Connection closed by the probe or by close()
+        } catch (IOException e) {
+            System.err.println("Sensor connection error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IllegalStateException e) {
+            // Pipeline shut down while this connection was open
+        } finally {
+            connections.remove(socket);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+    }
+}
\ No newline at end of file
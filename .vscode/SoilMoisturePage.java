@@ -1,6 +1,5 @@
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
@@ -15,25 +14,97 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
-public class SoilMoisturePage {
+public class SoilMoisturePage implements Page {
     
-    private static final String PRIMARY_COLOR = "#1A5F7A";
     private static final String SECONDARY_COLOR = "#2E8B57";
     private static final String ACCENT_COLOR = "#FF6347";
-    private static final String BACKGROUND_COLOR = "#F8F9FA";
+    
+    // Hours of readings shown in the history table
+    private static final int TABLE_HOURS = 24;
+    private static final int SAMPLE_DAYS = 30;
+    private static final long HOUR_MILLIS = 3_600_000L;
+    // Rows kept in the history table, a day of readings at one a second
+    private static final int TABLE_ROWS = 100_000;
+    
+    // The chart's time range toggles, each read from a fixed number of rollup buckets
+    private enum ChartRange {
+        DAY("Last 24 Hours", "24-Hour", SensorRollups.Resolution.HOUR, 24),
+        WEEK("Last 7 Days", "7-Day", SensorRollups.Resolution.HOUR, 168),
+        MONTH("Last 30 Days", "30-Day", SensorRollups.Resolution.DAY, 30);
+        
+        final String description;
+        final String title;
+        final SensorRollups.Resolution resolution;
+        final int points;
+        
+        ChartRange(String description, String title, SensorRollups.Resolution resolution, int points) {
+            this.description = description;
+            this.title = title;
+            this.resolution = resolution;
+            this.points = points;
+        }
+        
+        String label(long bucketStart) {
+            switch (this) {
+                case DAY:
+                    return TimeFormats.formatHourMinute(bucketStart);
+                case WEEK:
+                    return TimeFormats.formatDayHour(bucketStart);
+                default:
+                    return TimeFormats.formatDate(bucketStart);
+            }
+        }
+    }
     
     private MainApp mainApp;
+    // Simulated readings shown for locations with nothing recorded yet; kept
+    // on this page only, never in the application's history or database
+    // Made and read by the history loader thread, except that the chart
+    // reads sampleRollups once a load has been handed over
+    private SensorHistoryStore sampleHistory;
+    private SensorRollups sampleRollups;
+    private boolean showingSamples;
+    private UiUpdateBus localUiUpdates;
+    private ChartRange chartRange = ChartRange.DAY;
+    // Set while another page is shown, and until the page is first shown, so
+    // readings recorded meanwhile are loaded when it comes on screen
+    private boolean suspended = true;
+    // Latest moisture of the shown location, applied once per frame
+    private UiUpdateBus.Slot<Double> currentDisplay;
+    private volatile int shownLocationId;
+    private final Consumer<SensorReading> liveReadings = this::onLiveReading;
     
     // Soil moisture data
-    private final ObservableList<SensorReading> moistureData = FXCollections.observableArrayList();
+    private final RingBufferObservableList<SensorReading> moistureData = new RingBufferObservableList<>(TABLE_ROWS);
+    // Live readings waiting for the next frame to be added to the table
+    private final Queue<SensorReading> pendingRows = new ConcurrentLinkedQueue<>();
+    private UiUpdateBus.Slot<Boolean> newRows;
+    private long newestRow;
+    // Reads the table's day of history off the FX thread, one load at a time
+    private ExecutorService historyLoader;
+    // Bumped by every load, so only the latest one is shown
+    private int historyLoads;
+    // Live rows wait in pendingRows while a load is under way
+    private boolean loadingHistory;
     private final Random random = new Random();
     
     // UI components
     private LineChart<String, Number> moistureChart;
+    private Text chartTitle;
+    private int chartPointBudget;
     private TableView<SensorReading> dataTable;
     private ProgressBar moistureProgressBar;
     private Text currentMoistureText;
@@ -48,10 +119,11 @@ public class SoilMoisturePage {
         this.mainApp = mainApp;
     }
     
+    @Override
     public Parent createContent() {
         BorderPane root = new BorderPane();
         root.setPadding(new Insets(20));
-        root.setStyle("-fx-background-color: " + BACKGROUND_COLOR + ";");
+        root.getStyleClass().add("page");
         
         // Header
         VBox headerBox = createHeader();
@@ -69,24 +141,72 @@ public class SoilMoisturePage {
         VBox rightPanel = createDataTablePanel();
         root.setRight(rightPanel);
         
-        // Initialize with some sample data
-        loadSampleData();
+        currentDisplay = uiUpdates().slot(this::updateCurrentDisplay);
+        newRows = uiUpdates().slot(ready -> showNewRows());
         
+        // The recorded history is loaded by the first resume
         return root;
     }
     
+    @Override
+    public void resume() {
+        // Listen first: readings recorded while the history loads are added by
+        // showNewRows, which skips the ones the table already has
+        if (mainApp != null) {
+            mainApp.addReadingListener(liveReadings);
+        }
+        if (suspended) {
+            suspended = false;
+            loadHistory();
+        }
+    }
+    
+    @Override
+    public void suspend() {
+        suspended = true;
+        if (mainApp != null) {
+            mainApp.removeReadingListener(liveReadings);
+        }
+    }
+    
+    // Called on the recording thread for every reading while the page is shown
+    private void onLiveReading(SensorReading reading) {
+        if (reading.getLocationId() == shownLocationId) {
+            currentDisplay.post(reading.getSoilMoisture());
+            pendingRows.add(reading);
+            newRows.post(Boolean.TRUE);
+        }
+    }
+    
+    // Puts the live readings that arrived since the last frame at the top of
+    // the table in one change, skipping any the table already covers
+    private void showNewRows() {
+        if (loadingHistory) {
+            return;
+        }
+        List<SensorReading> rows = new ArrayList<>();
+        SensorReading reading;
+        while ((reading = pendingRows.poll()) != null) {
+            if (reading.getLocationId() == shownLocationId && reading.getTimestamp() > newestRow) {
+                rows.add(reading);
+                newestRow = reading.getTimestamp();
+            }
+        }
+        if (showingSamples && !rows.isEmpty()) {
+            // The first real reading replaces the sample data
+            loadHistory();
+            return;
+        }
+        moistureData.addAllFirst(rows);
+    }
+    
     private VBox createHeader() {
         HBox headerContainer = new HBox();
         headerContainer.setAlignment(Pos.CENTER_LEFT);
         headerContainer.setSpacing(20);
         
         Button backButton = new Button("← Back to Dashboard");
-        backButton.setStyle(
-            "-fx-background-color: transparent;" +
-            "-fx-text-fill: " + PRIMARY_COLOR + ";" +
-            "-fx-font-weight: bold;" +
-            "-fx-cursor: hand;"
-        );
+        backButton.getStyleClass().add("back-button");
         
         backButton.setOnAction(e -> {
             if (mainApp != null) {
@@ -117,7 +237,7 @@ public class SoilMoisturePage {
     private VBox createControlPanel() {
         VBox panel = new VBox(15);
         panel.setPadding(new Insets(10));
-        panel.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        panel.getStyleClass().add("card");
         panel.setPrefWidth(280);
         
         Text controlsTitle = new Text("Soil Moisture Status");
@@ -133,7 +253,6 @@ public class SoilMoisturePage {
         
         moistureProgressBar = new ProgressBar(0.645);
         moistureProgressBar.setPrefWidth(Double.MAX_VALUE);
-        moistureProgressBar.setStyle("-fx-accent: " + SECONDARY_COLOR + ";");
         
         statusText = new Text("Optimal Moisture Level");
         statusText.setFont(Font.font("Arial", FontWeight.MEDIUM, 14));
@@ -144,12 +263,7 @@ public class SoilMoisturePage {
         locationLabel.setFont(Font.font("Arial", FontWeight.MEDIUM, 14));
         
         sensorLocationDropdown = new ComboBox<>();
-        sensorLocationDropdown.getItems().addAll(
-            "Field A - North", 
-            "Field A - South", 
-            "Field B - East", 
-            "Field B - West"
-        );
+        sensorLocationDropdown.getItems().addAll(LocationRegistry.defaultLocations());
         sensorLocationDropdown.setValue("Field A - North");
         sensorLocationDropdown.setMaxWidth(Double.MAX_VALUE);
         sensorLocationDropdown.setOnAction(e -> updateData());
@@ -184,22 +298,12 @@ public class SoilMoisturePage {
         
         // Buttons for actions
         Button refreshButton = new Button("Refresh Data");
-        refreshButton.setStyle(
-            "-fx-background-color: " + PRIMARY_COLOR + ";" +
-            "-fx-text-fill: white;" +
-            "-fx-padding: 8 15;" +
-            "-fx-background-radius: 5;"
-        );
+        refreshButton.getStyleClass().add("primary-button");
         refreshButton.setMaxWidth(Double.MAX_VALUE);
         refreshButton.setOnAction(e -> updateData());
         
         Button configureButton = new Button("Configure Thresholds");
-        configureButton.setStyle(
-            "-fx-background-color: " + SECONDARY_COLOR + ";" +
-            "-fx-text-fill: white;" +
-            "-fx-padding: 8 15;" +
-            "-fx-background-radius: 5;"
-        );
+        configureButton.getStyleClass().add("secondary-button");
         configureButton.setMaxWidth(Double.MAX_VALUE);
         
         // Add all to panel
@@ -227,9 +331,9 @@ public class SoilMoisturePage {
     private VBox createChartPanel() {
         VBox panel = new VBox(10);
         panel.setPadding(new Insets(10, 20, 10, 20));
-        panel.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        panel.getStyleClass().add("card");
         
-        Text chartTitle = new Text("Soil Moisture Trend (Last 24 Hours)");
+        chartTitle = new Text("Soil Moisture Trend (" + chartRange.description + ")");
         chartTitle.setFont(Font.font("Arial", FontWeight.BOLD, 18));
         
         // Creating the chart
@@ -239,10 +343,16 @@ public class SoilMoisturePage {
         yAxis.setLabel("Soil Moisture (%)");
         
         moistureChart = new LineChart<>(xAxis, yAxis);
-        moistureChart.setTitle("24-Hour Soil Moisture Readings");
+        moistureChart.setTitle(chartRange.title + " Soil Moisture Readings");
         moistureChart.setAnimated(false);
         moistureChart.setCreateSymbols(true);
         moistureChart.setLegendVisible(false);
+        // Re-plot when the chart gets wide or narrow enough to change how many points fit
+        moistureChart.widthProperty().addListener((obs, oldWidth, newWidth) -> {
+            if (Downsampler.pointBudget(newWidth.doubleValue()) != chartPointBudget) {
+                updateChartData();
+            }
+        });
         
         // Time range selector
         HBox timeRangeBox = new HBox(10);
@@ -251,17 +361,20 @@ public class SoilMoisturePage {
         ToggleGroup timeGroup = new ToggleGroup();
         
         ToggleButton dayButton = new ToggleButton("24 Hours");
+        dayButton.setUserData(ChartRange.DAY);
         dayButton.setToggleGroup(timeGroup);
         dayButton.setSelected(true);
-        styleToggleButton(dayButton, true);
+        dayButton.getStyleClass().add("range-toggle");
         
         ToggleButton weekButton = new ToggleButton("Week");
+        weekButton.setUserData(ChartRange.WEEK);
         weekButton.setToggleGroup(timeGroup);
-        styleToggleButton(weekButton, false);
+        weekButton.getStyleClass().add("range-toggle");
         
         ToggleButton monthButton = new ToggleButton("Month");
+        monthButton.setUserData(ChartRange.MONTH);
         monthButton.setToggleGroup(timeGroup);
-        styleToggleButton(monthButton, false);
+        monthButton.getStyleClass().add("range-toggle");
         
         timeGroup.selectedToggleProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal == null) {
@@ -269,12 +382,8 @@ public class SoilMoisturePage {
                 return;
             }
             
-            // Style the buttons
-            styleToggleButton(dayButton, dayButton.isSelected());
-            styleToggleButton(weekButton, weekButton.isSelected());
-            styleToggleButton(monthButton, monthButton.isSelected());
-            
             // Update chart data
+            chartRange = (ChartRange) newVal.getUserData();
             updateChartData();
         });
         
@@ -284,28 +393,10 @@ public class SoilMoisturePage {
         return panel;
     }
     
-    private void styleToggleButton(ToggleButton button, boolean selected) {
-        if (selected) {
-            button.setStyle(
-                "-fx-background-color: " + PRIMARY_COLOR + ";" +
-                "-fx-text-fill: white;" +
-                "-fx-padding: 5 15;" +
-                "-fx-background-radius: 3;"
-            );
-        } else {
-            button.setStyle(
-                "-fx-background-color: #E9ECEF;" +
-                "-fx-text-fill: #495057;" +
-                "-fx-padding: 5 15;" +
-                "-fx-background-radius: 3;"
-            );
-        }
-    }
-    
     private VBox createDataTablePanel() {
         VBox panel = new VBox(10);
         panel.setPadding(new Insets(10));
-        panel.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 10, 0, 0, 3);");
+        panel.getStyleClass().add("card");
         panel.setPrefWidth(300);
         
         Text dataTitle = new Text("Historical Data");
@@ -317,7 +408,8 @@ public class SoilMoisturePage {
         dataTable.setPrefHeight(500);
         
         TableColumn<SensorReading, String> timeCol = new TableColumn<>("Time");
-        timeCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getTimestamp()));
+        timeCol.setCellValueFactory(data -> new SimpleStringProperty(
+                TimeFormats.formatTime(data.getValue().getTimestamp())));
         timeCol.setPrefWidth(120);
         
         TableColumn<SensorReading, String> moistureCol = new TableColumn<>("Moisture");
@@ -336,20 +428,10 @@ public class SoilMoisturePage {
         HBox actionBox = new HBox(10);
         
         Button exportButton = new Button("Export Data");
-        exportButton.setStyle(
-            "-fx-background-color: #6C757D;" +
-            "-fx-text-fill: white;" +
-            "-fx-padding: 8 15;" +
-            "-fx-background-radius: 5;"
-        );
+        exportButton.getStyleClass().add("muted-button");
         
         Button filterButton = new Button("Filter");
-        filterButton.setStyle(
-            "-fx-background-color: #6C757D;" +
-            "-fx-text-fill: white;" +
-            "-fx-padding: 8 15;" +
-            "-fx-background-radius: 5;"
-        );
+        filterButton.getStyleClass().add("muted-button");
         
         HBox.setHgrow(exportButton, Priority.ALWAYS);
         HBox.setHgrow(filterButton, Priority.ALWAYS);
@@ -362,24 +444,97 @@ public class SoilMoisturePage {
         return panel;
     }
     
-    private void loadSampleData() {
-        // Clear existing data
-        moistureData.clear();
-        
-        // Create new XYChart.Series for the current location
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
-        series.setName("Soil Moisture");
+    // Reads the selected location's last day on the history loader thread
+    // and shows it in the table with one change
+    private void loadHistory() {
+        int locationId = LocationRegistry.idOf(sensorLocationDropdown.getValue());
+        shownLocationId = locationId;
+        int load = ++historyLoads;
+        loadingHistory = true;
+        SensorHistoryStore recorded = recordedHistory();
+        if (historyLoader == null) {
+            historyLoader = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "soil-moisture-history");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        historyLoader.execute(() -> {
+            long now = System.currentTimeMillis();
+            List<SensorReading> rows = new ArrayList<>();
+            boolean samples = false;
+            try {
+                // Nothing recorded for this location yet - show a month of simulated readings
+                samples = recorded == null
+                        || recorded.countReadings(locationId, now - SAMPLE_DAYS * 24 * HOUR_MILLIS, now + 1) == 0;
+                if (samples) {
+                    seedSampleHistory(locationId, now);
+                }
+                readDay(samples ? sampleHistory : recorded, locationId, now, rows);
+            } catch (RuntimeException e) {
+                System.err.println("Could not load soil moisture history: " + e.getMessage());
+            }
+            boolean showSamples = samples;
+            Platform.runLater(() -> showHistory(load, showSamples, rows));
+        });
+    }
+    
+    // Every reading of the last day, newest first; the history holds one per
+    // second at most, so this stays within TABLE_ROWS
+    private static void readDay(SensorHistoryStore store, int locationId, long now, List<SensorReading> rows) {
+        long[] previous = {Long.MIN_VALUE};
+        boolean[] inOrder = {true};
+        store.scan(locationId, now - TABLE_HOURS * HOUR_MILLIS, now + 1,
+                (timestamp, soilMoisture, temperature, humidity, rainfall, windSpeed, lightIntensity) -> {
+                    inOrder[0] &= timestamp >= previous[0];
+                    previous[0] = timestamp;
+                    rows.add(new SensorReading(timestamp, temperature, soilMoisture, humidity, rainfall, windSpeed,
+                            lightIntensity, locationId));
+                });
+        // The store gives rows oldest first unless a day's rows arrived out of order
+        if (inOrder[0]) {
+            Collections.reverse(rows);
+        } else {
+            rows.sort(Comparator.comparingLong(SensorReading::getTimestamp).reversed());
+        }
+    }
+    
+    // Hands a finished load to the table and chart, then adds the live
+    // readings recorded since its scan
+    private void showHistory(int load, boolean samples, List<SensorReading> rows) {
+        if (load != historyLoads) {
+            return; // A newer load is under way
+        }
+        loadingHistory = false;
+        showingSamples = samples;
+        moistureData.setAll(rows);
+        newestRow = rows.isEmpty() ? Long.MIN_VALUE : rows.get(0).getTimestamp();
         
-        // Generate 24 hours of data for the chart and table
-        LocalDateTime now = LocalDateTime.now();
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-        DateTimeFormatter fullFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
+        // Update current moisture value
+        if (!rows.isEmpty()) {
+            currentDisplay.post(rows.get(0).getSoilMoisture());
+        }
         
-        for (int i = 24; i >= 0; i--) {
-            LocalDateTime time = now.minusHours(i);
+        updateChartData();
+        showNewRows();
+    }
+    
+    // Fills the page's sample store with one simulated reading per hour for
+    // the last SAMPLE_DAYS days, unless it already holds them
+    private void seedSampleHistory(int locationId, long now) {
+        if (sampleHistory == null) {
+            sampleHistory = SensorHistoryStore.inMemory();
+            // Given every sample as it is made, so it needs no backfill
+            sampleRollups = new SensorRollups();
+        }
+        if (sampleHistory.countReadings(locationId, now - SAMPLE_DAYS * 24 * HOUR_MILLIS, now + 1) > 0) {
+            return;
+        }
+        for (int i = SAMPLE_DAYS * 24; i >= 0; i--) {
+            long timestamp = now - i * HOUR_MILLIS;
             
             // Generate reasonable moisture values (with a daily pattern)
-            double hourOfDay = time.getHour();
+            double hourOfDay = Instant.ofEpochMilli(timestamp).atZone(ZoneId.systemDefault()).getHour();
             
             // Moisture tends to be lower during the day (evaporation) and higher at night
             double baseMoisture = 60.0 + random.nextDouble() * 15.0 - 7.5; // Base 60% with ±7.5% variation
@@ -391,34 +546,39 @@ public class SoilMoisturePage {
             double timeFactorTemp = 6.0 * Math.sin(Math.PI * (hourOfDay - 2) / 12.0); // +6° during day
             double temperature = Math.max(15, Math.min(35, baseTemp + timeFactorTemp));
             
-            // Add to chart
-            series.getData().add(new XYChart.Data<>(time.format(timeFormatter), moistureValue));
-            
-            // Every 2 hours, add to table data (to keep the table manageable)
-            if (i % 2 == 0 || i == 0) {
-                SensorReading reading = new SensorReading(
-                    time.format(fullFormatter),
-                    temperature,
-                    moistureValue,
-                    60 + random.nextDouble() * 20, // Humidity 60-80%
-                    0.0, // No rainfall
-                    5 + random.nextDouble() * 10, // Wind 5-15 km/h
-                    i < 12 ? 10000 * Math.sin(Math.PI * hourOfDay / 12.0) : 0, // Light during day
-                    sensorLocationDropdown.getValue()
-                );
-                moistureData.add(reading);
-            }
+            SensorReading reading = new SensorReading(
+                timestamp,
+                temperature,
+                moistureValue,
+                60 + random.nextDouble() * 20, // Humidity 60-80%
+                0.0, // No rainfall
+                5 + random.nextDouble() * 10, // Wind 5-15 km/h
+                Math.max(0, 10000 * Math.sin(Math.PI * (hourOfDay - 6) / 12.0)), // Light during day
+                locationId
+            );
+            sampleHistory.append(reading);
+            sampleRollups.record(reading);
         }
-        
-        // Set chart data
-        moistureChart.getData().clear();
-        moistureChart.getData().add(series);
-        
-        // Update current moisture value
-        if (!moistureData.isEmpty()) {
-            SensorReading latest = moistureData.get(moistureData.size() - 1);
-            updateCurrentDisplay(latest.getSoilMoisture());
+    }
+    
+    private UiUpdateBus uiUpdates() {
+        if (mainApp != null) {
+            return mainApp.getUiUpdates();
+        }
+        if (localUiUpdates == null) {
+            localUiUpdates = new UiUpdateBus();
         }
+        return localUiUpdates;
+    }
+    
+    // The application's history, or null when the page runs on its own
+    private SensorHistoryStore recordedHistory() {
+        return mainApp != null ? mainApp.getHistoryStore() : null;
+    }
+    
+    // Rollups of the history the page is showing
+    private SensorRollups rollups() {
+        return showingSamples ? sampleRollups : mainApp.getRollups();
     }
     
     private void updateCurrentDisplay(double moistureValue) {
@@ -450,14 +610,40 @@ public class SoilMoisturePage {
     }
     
     private void updateData() {
-        // This would typically fetch real data from a database or API
-        // For now, we'll just generate new sample data
-        loadSampleData();
+        loadHistory();
     }
     
+    // Plots the hourly or daily average moisture for the selected time range,
+    // downsampled to the number of points the chart is wide enough to show
     private void updateChartData() {
-        // This would update the chart with different time ranges
-        // For now, we'll just reload the sample data
-        loadSampleData();
+        chartTitle.setText("Soil Moisture Trend (" + chartRange.description + ")"
+                + (showingSamples ? " - Sample Data" : ""));
+        moistureChart.setTitle(chartRange.title + " Soil Moisture Readings");
+        
+        double[] times = new double[chartRange.points];
+        double[] averages = new double[chartRange.points];
+        int[] count = new int[1];
+        int locationId = LocationRegistry.idOf(sensorLocationDropdown.getValue());
+        rollups().read(locationId, chartRange.resolution, SensorMetric.SOIL_MOISTURE, System.currentTimeMillis(),
+                chartRange.points, (bucketStart, min, max, average, last) -> {
+                    times[count[0]] = bucketStart;
+                    averages[count[0]] = average;
+                    count[0]++;
+                });
+        
+        chartPointBudget = Downsampler.pointBudget(moistureChart.getWidth());
+        int[] selected = new int[chartPointBudget];
+        int points = Downsampler.largestTriangleThreeBuckets(times, averages, count[0], chartPointBudget, selected);
+        
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        series.setName("Soil Moisture");
+        for (int i = 0; i < points; i++) {
+            int index = selected[i];
+            series.getData().add(new XYChart.Data<>(chartRange.label((long) times[index]), averages[index]));
+        }
+        
+        moistureChart.setCreateSymbols(Downsampler.showSymbols(points));
+        moistureChart.getData().clear();
+        moistureChart.getData().add(series);
     }
 } 
\ No newline at end of file
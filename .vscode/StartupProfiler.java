@@ -0,0 +1,105 @@
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Times the steps of starting the application, so slowdowns on low-end
+// field tablets show up: how long after the JVM started the first frame was
+// laid out, and how long each page took to build. Every measurement is
+// printed and appended to a CSV file (epoch millis, step, milliseconds)
+// that can be compared between runs and builds.
+//
+// MainApp only profiles when started with -Dagritech.startupProfile=true;
+// otherwise it uses disabled(), which records nothing. Printing and writing
+// happen on a background thread, so the profiler doesn't slow down the
+// startup it measures.
+public class StartupProfiler {
+    
+    private final Path file;
+    private final boolean enabled;
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    // Writes measurements in the order they were taken; null when disabled
+    private final ExecutorService writer;
+    // Only used on the writer thread
+    private boolean fileFailed;
+    
+    // Measurements go to the file, or only to the console if it is null
+    public StartupProfiler(Path file) {
+        this(file, true);
+    }
+    
+    private StartupProfiler(Path file, boolean enabled) {
+        this.file = file;
+        this.enabled = enabled;
+        this.writer = !enabled ? null : Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "startup-profile");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    // A profiler that records nothing
+    public static StartupProfiler disabled() {
+        return new StartupProfiler(null, false);
+    }
+    
+    // Records a step that took the given time
+    public void record(String step, long nanos) {
+        if (enabled) {
+            write(step, nanos / 1e6);
+        }
+    }
+    
+    // Records the time from JVM start to now
+    public void recordSinceStart(String step) {
+        if (enabled) {
+            write(step, System.currentTimeMillis() - jvmStartMillis);
+        }
+    }
+    
+    // Records the time from JVM start to the end of the scene's next layout pass
+    public void recordFirstFrame(Scene scene, String step) {
+        if (!enabled) {
+            return;
+        }
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            scene.removePostLayoutPulseListener(listener[0]);
+            recordSinceStart(step);
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+    
+    // Called from the FX thread and page builders; hands the measurement to
+    // the writer thread
+    private void write(String step, double millis) {
+        long takenAt = System.currentTimeMillis();
+        writer.execute(() -> writeNow(takenAt, step, millis));
+    }
+    
+    private void writeNow(long takenAt, String step, double millis) {
+        System.out.printf("Startup: %s %.1f ms%n", step, millis);
+        if (file == null || fileFailed) {
+            return;
+        }
+        String line = takenAt + "," + step + "," + String.format(Locale.ROOT, "%.1f", millis) + "\n";
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(file, line.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            // Keep timing on the console only
+            fileFailed = true;
+            System.err.println("Could not write startup profile: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
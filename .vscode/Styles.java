@@ -0,0 +1,42 @@
+import javafx.css.PseudoClass;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+
+import java.net.URL;
+
+// Access to agritech.css, the stylesheet every scene shares. Nodes are
+// styled with its style classes; state such as the current sidebar entry is
+// shown by switching a pseudo-class, which only re-matches rules that are
+// already parsed, instead of handing JavaFX a new inline style to parse.
+public final class Styles {
+    
+    private static final PseudoClass SELECTED = PseudoClass.getPseudoClass("selected");
+    
+    private static final String STYLESHEET = find("agritech.css");
+    
+    private Styles() {
+    }
+    
+    // Adds the shared stylesheet to the scene and returns it
+    public static Scene apply(Scene scene) {
+        if (STYLESHEET != null && !scene.getStylesheets().contains(STYLESHEET)) {
+            scene.getStylesheets().add(STYLESHEET);
+        }
+        return scene;
+    }
+    
+    // For controls without a selected state of their own, e.g. plain buttons
+    public static void setSelected(Node node, boolean selected) {
+        node.pseudoClassStateChanged(SELECTED, selected);
+    }
+    
+    private static String find(String name) {
+        URL url = Styles.class.getResource(name);
+        if (url == null) {
+            // Pages still work, just unstyled
+            System.err.println("Stylesheet " + name + " not found on the classpath");
+            return null;
+        }
+        return url.toExternalForm();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+// Shared formatters for showing epoch-millisecond timestamps. Readings keep
+// their time as a long and are only formatted here, at the display edge.
+public final class TimeFormats {
+    
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter HOUR_MINUTE =
+            DateTimeFormatter.ofPattern("HH:mm").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter DAY_HOUR =
+            DateTimeFormatter.ofPattern("EEE HH:mm").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter DATE =
+            DateTimeFormatter.ofPattern("dd MMM").withZone(ZoneId.systemDefault());
+    
+    private TimeFormats() {
+    }
+    
+    // e.g. 14:05:09
+    public static String formatTime(long epochMillis) {
+        return TIME.format(Instant.ofEpochMilli(epochMillis));
+    }
+    
+    // e.g. 14:05
+    public static String formatHourMinute(long epochMillis) {
+        return HOUR_MINUTE.format(Instant.ofEpochMilli(epochMillis));
+    }
+    
+    // e.g. Tue 14:00
+    public static String formatDayHour(long epochMillis) {
+        return DAY_HOUR.format(Instant.ofEpochMilli(epochMillis));
+    }
+    
+    // e.g. 03 Mar
+    public static String formatDate(long epochMillis) {
+        return DATE.format(Instant.ofEpochMilli(epochMillis));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,375 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Hierarchical timing wheel for large numbers of timers, such as the open
+// and close deadlines of thousands of valves.
+//
+// Time is cut into ticks. LEVELS wheels of SLOTS slots hold the timers: the
+// first wheel has one slot per tick, each wheel above it one slot per full
+// turn of the wheel below. A timer goes into the lowest wheel whose span
+// covers its deadline; when a higher wheel's slot comes round its timers are
+// moved down, so each timer is handled a few times at most whatever its
+// delay. Scheduling and cancelling are O(1) and don't touch the wheels:
+// callers push new timers and cancellations onto lock-free stacks that the
+// driver thread applies, and the driver also runs the expired tasks. Tasks
+// should be short.
+//
+// Tick deadlines are computed from the wheel's start time rather than by
+// adding up sleeps, so lateness stays within a tick plus the OS wake-up delay
+// however long the wheel runs. The driver sleeps through ticks with nothing
+// due, and with no timers at all until one is scheduled; callers only wake
+// it for a deadline earlier than the one it sleeps towards. The driver thread
+// is started by the first schedule, so a wheel that is never used costs no
+// thread.
+public class TimingWheel implements AutoCloseable {
+    
+    // A scheduled task
+    public static final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+        
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long deadlineNanos;
+        private final long deadlineTick;
+        private volatile int state = WAITING;
+        // Links in the added and cancelled stacks
+        private Timeout nextAdded;
+        private Timeout nextCancelled;
+        // Links within a slot; only touched by the driver thread
+        private Slot slot;
+        private Timeout previous;
+        private Timeout next;
+        
+        Timeout(TimingWheel wheel, Runnable task, long deadlineNanos, long deadlineTick) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+            this.deadlineTick = deadlineTick;
+        }
+        
+        // Returns false if the task already ran or was cancelled
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, WAITING, CANCELLED)) {
+                return false;
+            }
+            // Taken out of its slot the next time the driver wakes
+            Timeout head;
+            do {
+                head = wheel.cancelled.get();
+                nextCancelled = head;
+            } while (!wheel.cancelled.compareAndSet(head, this));
+            return true;
+        }
+        
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+        
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+        
+        // The System.nanoTime at which the task is due
+        public long getDeadlineNanos() {
+            return deadlineNanos;
+        }
+    }
+    
+    // Doubly linked list of the timers in one slot
+    private static final class Slot {
+        Timeout head;
+        Timeout tail;
+        
+        void add(Timeout timeout) {
+            timeout.slot = this;
+            timeout.previous = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+        
+        void remove(Timeout timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.slot = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+        
+        // Empties the slot, returning its former contents
+        Timeout takeAll() {
+            Timeout first = head;
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+    
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    // Furthest a timer can be placed; later deadlines wait in the top wheel
+    private static final long MAX_TICKS_AHEAD = (1L << (SLOT_BITS * LEVELS)) - 1;
+    // sleepingUntil while the driver is awake and will see new timers anyway
+    private static final long AWAKE = Long.MIN_VALUE;
+    
+    private final long tickNanos;
+    private final long startNanos;
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+    private final AtomicReference<Timeout> added = new AtomicReference<>();
+    private final AtomicReference<Timeout> cancelled = new AtomicReference<>();
+    private final LongAdder scheduledCount = new LongAdder();
+    private final String threadName;
+    private final AtomicBoolean started = new AtomicBoolean();
+    // Null until the first schedule
+    private volatile Thread driver;
+    // The tick the driver will wake at by itself
+    private volatile long sleepingUntil = AWAKE;
+    private volatile long finishedCount;
+    private volatile boolean closed;
+    // Ticks processed so far; only touched by the driver thread
+    private long currentTick;
+    private int placed;
+    
+    public TimingWheel(long tick, TimeUnit unit, String threadName) {
+        this.tickNanos = unit.toNanos(tick);
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        for (Slot[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new Slot();
+            }
+        }
+        this.startNanos = System.nanoTime();
+        this.threadName = threadName;
+    }
+    
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return scheduleAt(task, System.nanoTime() + unit.toNanos(Math.max(0, delay)));
+    }
+    
+    // Runs the task once System.nanoTime passes the deadline
+    public Timeout scheduleAt(Runnable task, long deadlineNanos) {
+        if (closed) {
+            throw new IllegalStateException("Timing wheel is closed");
+        }
+        // Round up, so a task never runs early
+        long deadlineTick = Math.max(0, Math.floorDiv(deadlineNanos - startNanos + tickNanos - 1, tickNanos));
+        Timeout timeout = new Timeout(this, task, deadlineNanos, deadlineTick);
+        scheduledCount.increment();
+        Timeout head;
+        do {
+            head = added.get();
+            timeout.nextAdded = head;
+        } while (!added.compareAndSet(head, timeout));
+        if (!started.get()) {
+            startDriver();
+        } else if (deadlineTick < sleepingUntil) {
+            // A driver still starting has no thread to unpark yet, but looks
+            // at the added timers before it first sleeps
+            LockSupport.unpark(driver);
+        }
+        return timeout;
+    }
+    
+    private void startDriver() {
+        if (started.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::drive, threadName);
+            thread.setDaemon(true);
+            driver = thread;
+            thread.start();
+        }
+    }
+    
+    // Timers scheduled and not yet run or cancelled
+    public long size() {
+        return scheduledCount.sum() - finishedCount;
+    }
+    
+    // Stops the driver thread; pending tasks never run
+    @Override
+    public void close() {
+        closed = true;
+        // Keeps a schedule racing with close from starting a driver
+        started.set(true);
+        Thread thread = driver;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void drive() {
+        while (!closed) {
+            applyCancellations();
+            if (placed == 0) {
+                // Nothing in the wheels: skip the idle ticks
+                currentTick = Math.max(currentTick, (System.nanoTime() - startNanos) / tickNanos);
+            }
+            placeAdded();
+            
+            if (placed > 0) {
+                long nowTick = (System.nanoTime() - startNanos) / tickNanos;
+                while (currentTick <= nowTick && !closed) {
+                    expire(currentTick);
+                    currentTick++;
+                    if ((currentTick & SLOT_MASK) == 0) {
+                        // Let timers added meanwhile catch the next turn
+                        placeAdded();
+                    }
+                }
+            }
+            
+            // Sleep until the next tick with work, unless timers arrived
+            // meanwhile; callers that see sleepingUntil wake us for earlier ones
+            long wakeTick = placed > 0 ? nextBusyTick() : Long.MAX_VALUE;
+            sleepingUntil = wakeTick;
+            if (added.get() == null && !closed) {
+                if (wakeTick == Long.MAX_VALUE) {
+                    LockSupport.park(this);
+                } else {
+                    long wait = startNanos + wakeTick * tickNanos - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(this, wait);
+                    }
+                }
+            }
+            sleepingUntil = AWAKE;
+        }
+    }
+    
+    // The next tick with timers in the first wheel, or the next cascade if
+    // that comes first (which may be the current tick)
+    private long nextBusyTick() {
+        long cascade = (currentTick + SLOT_MASK) & ~SLOT_MASK;
+        for (long tick = currentTick; tick < cascade; tick++) {
+            if (wheels[0][(int) (tick & SLOT_MASK)].head != null) {
+                return tick;
+            }
+        }
+        return cascade;
+    }
+    
+    // Runs the timers due at the tick, first moving down any higher-wheel
+    // slot whose turn starts at it
+    private void expire(long tick) {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((tick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                break;
+            }
+            int index = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Timeout timeout = wheels[level][index].takeAll();
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.slot = null;
+                timeout.previous = null;
+                timeout.next = null;
+                placed--;
+                place(timeout, tick);
+                timeout = next;
+            }
+        }
+        
+        Timeout timeout = wheels[0][(int) (tick & SLOT_MASK)].takeAll();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.slot = null;
+            timeout.previous = null;
+            timeout.next = null;
+            placed--;
+            if (timeout.deadlineTick > tick) {
+                // Only reached when a timer waits in the top wheel for more than one turn
+                place(timeout, tick);
+            } else {
+                run(timeout);
+            }
+            timeout = next;
+        }
+    }
+    
+    private void run(Timeout timeout) {
+        if (!Timeout.STATE.compareAndSet(timeout, Timeout.WAITING, Timeout.EXPIRED)) {
+            return;
+        }
+        finishedCount++;
+        try {
+            timeout.task.run();
+        } catch (Throwable e) {
+            // Even an Error must not stop the timers of every other task
+            System.err.println("Timer task failed: " + e);
+        }
+    }
+    
+    private void placeAdded() {
+        Timeout timeout = added.getAndSet(null);
+        long now = System.nanoTime();
+        while (timeout != null) {
+            Timeout next = timeout.nextAdded;
+            timeout.nextAdded = null;
+            if (timeout.state == Timeout.WAITING) {
+                if (timeout.deadlineNanos - now <= 0) {
+                    // Already due: no need to wait for the tick
+                    run(timeout);
+                } else {
+                    place(timeout, currentTick);
+                }
+            }
+            timeout = next;
+        }
+    }
+    
+    private void applyCancellations() {
+        Timeout timeout = cancelled.getAndSet(null);
+        while (timeout != null) {
+            Timeout next = timeout.nextCancelled;
+            timeout.nextCancelled = null;
+            finishedCount++;
+            if (timeout.slot != null) {
+                timeout.slot.remove(timeout);
+                placed--;
+            }
+            timeout = next;
+        }
+    }
+    
+    // Puts a timer in the lowest wheel whose span covers it, seen from the tick
+    private void place(Timeout timeout, long tick) {
+        long target = Math.max(timeout.deadlineTick, tick);
+        long ahead = Math.min(target - tick, MAX_TICKS_AHEAD);
+        target = tick + ahead;
+        int level = 0;
+        while (level < LEVELS - 1 && ahead >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int index = (int) ((target >>> (SLOT_BITS * level)) & SLOT_MASK);
+        wheels[level][index].add(timeout);
+        placed++;
+    }
+}
\ No newline at end of file
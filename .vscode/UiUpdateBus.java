@@ -0,0 +1,137 @@
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Carries values from any thread to on-screen widgets, applying at most one
+// update per widget per frame. Each widget (a text, a progress bar, a chart)
+// gets a Slot; posting to a slot replaces the value still waiting in it, so
+// a probe sending 10,000 readings a second costs the FX thread one update
+// per frame, 60 a second at most, and the values in between are dropped.
+//
+// An AnimationTimer applies the waiting values once per pulse. It is started
+// by the first post after a quiet spell, the only time a post reaches
+// Platform.runLater, and stops itself when nothing has been posted for a few
+// frames, so idle screens get no extra pulses.
+public class UiUpdateBus {
+    
+    // Frames without posts before the timer stops
+    private static final int IDLE_FRAMES = 30;
+    // Marks the end of the slots to apply in a frame, so a slot posted again
+    // while the frame is applied waits for the next one
+    private static final Object END_OF_FRAME = new Object();
+    
+    public final class Slot<T> {
+        private final Consumer<? super T> apply;
+        private final AtomicReference<T> latest = new AtomicReference<>();
+        
+        private Slot(Consumer<? super T> apply) {
+            this.apply = apply;
+        }
+        
+        // Shows the value at the next frame unless another is posted first;
+        // callable from any thread
+        public void post(T value) {
+            Objects.requireNonNull(value, "value");
+            postedCount.increment();
+            if (latest.getAndSet(value) == null) {
+                dirty.add(this);
+                wake();
+            }
+        }
+        
+        private void apply() {
+            T value = latest.getAndSet(null);
+            if (value == null) {
+                return;
+            }
+            appliedCount++;
+            try {
+                apply.accept(value);
+            } catch (RuntimeException e) {
+                // Other widgets still update
+                System.err.println("UI update failed: " + e);
+            }
+        }
+    }
+    
+    private final Queue<Object> dirty = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean timerRunning = new AtomicBoolean();
+    private final LongAdder postedCount = new LongAdder();
+    // Written on the FX thread only
+    private volatile long appliedCount;
+    private AnimationTimer timer;
+    private int idleFrames;
+    
+    // A slot whose values are passed to the given consumer on the FX thread
+    public <T> Slot<T> slot(Consumer<? super T> apply) {
+        return new Slot<>(apply);
+    }
+    
+    // Values posted, including the ones dropped for a later value
+    public long getPostedCount() {
+        return postedCount.sum();
+    }
+    
+    // Values handed to widgets
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+    
+    // Applies the values posted since the last frame and returns how many
+    // slots were updated; FX thread only
+    public int flush() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        dirty.add(END_OF_FRAME);
+        int updated = 0;
+        Object next;
+        while ((next = dirty.poll()) != END_OF_FRAME) {
+            ((Slot<?>) next).apply();
+            updated++;
+        }
+        return updated;
+    }
+    
+    private void wake() {
+        if (timerRunning.compareAndSet(false, true)) {
+            Platform.runLater(this::startTimer);
+        }
+    }
+    
+    private void startTimer() {
+        if (timer == null) {
+            timer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    onFrame();
+                }
+            };
+        }
+        idleFrames = 0;
+        timer.start();
+    }
+    
+    private void onFrame() {
+        if (flush() > 0) {
+            idleFrames = 0;
+            return;
+        }
+        if (++idleFrames < IDLE_FRAMES) {
+            return;
+        }
+        timer.stop();
+        timerRunning.set(false);
+        // A post that saw the timer still running may have come in since
+        if (!dirty.isEmpty()) {
+            wake();
+        }
+    }
+}
\ No newline at end of file
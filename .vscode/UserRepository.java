@@ -0,0 +1,99 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+
+// Data access for the users table
+public class UserRepository {
+    
+    private static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS users (" +
+            "id INT AUTO_INCREMENT PRIMARY KEY, " +
+            "username VARCHAR(50) NOT NULL UNIQUE, " +
+            "password VARCHAR(255) NOT NULL, " +
+            "name VARCHAR(100), " +
+            "email VARCHAR(100), " +
+            "role VARCHAR(20) DEFAULT 'user', " +
+            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")";
+    // Tables created before passwords were hashed have room for 50 characters only
+    private static final String WIDEN_PASSWORD_SQL = "ALTER TABLE users MODIFY COLUMN password VARCHAR(255) NOT NULL";
+    private static final String COUNT_USERS_SQL = "SELECT COUNT(*) FROM users";
+    // Skips a user another instance added first; username is unique
+    private static final String INSERT_USER_SQL =
+            "INSERT IGNORE INTO users (username, password, name, email, role) VALUES (?, ?, ?, ?, ?)";
+    private static final String FIND_PASSWORD_SQL = "SELECT password FROM users WHERE username = ?";
+    private static final String UPDATE_PASSWORD_SQL = "UPDATE users SET password = ? WHERE username = ? AND password = ?";
+    
+    private final DataSource dataSource;
+    
+    public UserRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
+    // Schema steps, run by SchemaMigrator
+    
+    static void createTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_TABLE_SQL);
+        }
+    }
+    
+    static void widenPasswordColumn(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(WIDEN_PASSWORD_SQL);
+        }
+    }
+    
+    // Adds the default accounts to an empty users table; an instance racing
+    // this one on a fresh database adds each account once
+    static void addDefaultUsers(Connection conn, PasswordHasher hasher) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(COUNT_USERS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next() || rs.getInt(1) != 0) {
+                return;
+            }
+        }
+        
+        try (PreparedStatement insertStmt = conn.prepareStatement(INSERT_USER_SQL)) {
+            addUser(insertStmt, "admin", hasher.hash("admin123"), "Administrator", "admin@agritech.com", "admin");
+            addUser(insertStmt, "user", hasher.hash("password"), "Test User", "user@agritech.com", "user");
+            insertStmt.executeBatch();
+        }
+    }
+    
+    // The stored password hash (or legacy plaintext password) of a user, or null if there is no such user
+    public String findPasswordHash(String username) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_PASSWORD_SQL)) {
+            stmt.setString(1, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+    
+    // Replaces a user's stored password unless it changed since it was read;
+    // returns false if it did
+    public boolean updatePasswordHash(String username, String expected, String newHash) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_PASSWORD_SQL)) {
+            stmt.setString(1, newHash);
+            stmt.setString(2, username);
+            stmt.setString(3, expected);
+            return stmt.executeUpdate() == 1;
+        }
+    }
+    
+    private static void addUser(PreparedStatement stmt, String username, String passwordHash, String name,
+                                String email, String role) throws SQLException {
+        stmt.setString(1, username);
+        stmt.setString(2, passwordHash);
+        stmt.setString(3, name);
+        stmt.setString(4, email);
+        stmt.setString(5, role);
+        stmt.addBatch();
+    }
+}
\ No newline at end of file
@@ -17,9 +17,7 @@ import javafx.stage.Stage;
 public class WelcomeScreen {
     
     private static final String PRIMARY_COLOR = "#1A5F7A";
-    private static final String SECONDARY_COLOR = "#2E8B57";
     private static final String ACCENT_COLOR = "#FF6347";
-    private static final String BACKGROUND_COLOR = "#F8F9FA";
     
     private final Stage primaryStage;
     private final MainApp mainApp;
@@ -31,7 +29,7 @@ public class WelcomeScreen {
     
     public Scene createWelcomeScene() {
         BorderPane root = new BorderPane();
-        root.setStyle("-fx-background-color: " + BACKGROUND_COLOR + ";");
+        root.getStyleClass().add("page");
         
         // Header
         VBox headerBox = createHeader();
@@ -45,7 +43,7 @@ public class WelcomeScreen {
         HBox footerBox = createFooter();
         root.setBottom(footerBox);
         
-        return new Scene(root, 900, 600);
+        return Styles.apply(new Scene(root, 900, 600));
     }
     
     private VBox createHeader() {
@@ -101,13 +99,7 @@ public class WelcomeScreen {
         descriptionText.setWrappingWidth(700);
         
         Button enterButton = new Button("Enter Dashboard");
-        enterButton.setStyle(
-            "-fx-background-color: " + SECONDARY_COLOR + ";" +
-            "-fx-text-fill: white;" +
-            "-fx-font-size: 16px;" +
-            "-fx-padding: 12 30;" +
-            "-fx-background-radius: 5;"
-        );
+        enterButton.getStyleClass().addAll("secondary-button", "hero-button");
         enterButton.setOnAction(e -> mainApp.showDashboard());
         
         contentBox.getChildren().addAll(imageView, welcomeText, descriptionText, enterButton);
@@ -0,0 +1,65 @@
+package agritech.bench;
+
+import agritech.*;
+
+import java.util.Random;
+
+// Shared sample data for the benchmarks. Each distribution is generated from
+// a fixed seed so numbers stay comparable between builds.
+public final class BenchmarkData {
+    
+    public static final int BLOCK_SIZE = 1024;
+    
+    // 2025-03-14 10:45:00 UTC
+    public static final long TIMESTAMP = 1741949100000L;
+    
+    private static final String[] LOCATIONS = {
+        "Field A - North", "Field A - South", "Field B - East", "Field B - West"
+    };
+    
+    private BenchmarkData() {
+    }
+    
+    // Fills the three columns according to the named distribution:
+    // "rain" - mostly wet days, the rainfall rule fires for ~80% of readings
+    // "drought" - dry, hot weather, almost every reading needs irrigation
+    // "mixed" - the ranges used by SensorSimulationPage.randomizeValues
+    public static void fill(String distribution, double[] soilMoisture, double[] temperature, double[] rainfall) {
+        Random random = new Random(42);
+        for (int i = 0; i < soilMoisture.length; i++) {
+            switch (distribution) {
+                case "rain":
+                    soilMoisture[i] = 40 + random.nextDouble() * 50;
+                    temperature[i] = 10 + random.nextDouble() * 15;
+                    rainfall[i] = random.nextDouble() < 0.8 ? 5.5 + random.nextDouble() * 30 : random.nextDouble() * 5;
+                    break;
+                case "drought":
+                    soilMoisture[i] = 5 + random.nextDouble() * 45;
+                    temperature[i] = 25 + random.nextDouble() * 15;
+                    rainfall[i] = random.nextDouble() * 0.5;
+                    break;
+                case "mixed":
+                    soilMoisture[i] = 20 + random.nextDouble() * 60;
+                    temperature[i] = 15 + random.nextDouble() * 20;
+                    rainfall[i] = random.nextDouble() * 15;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown distribution: " + distribution);
+            }
+        }
+    }
+    
+    public static SensorReading[] readings(String distribution) {
+        double[] soilMoisture = new double[BLOCK_SIZE];
+        double[] temperature = new double[BLOCK_SIZE];
+        double[] rainfall = new double[BLOCK_SIZE];
+        fill(distribution, soilMoisture, temperature, rainfall);
+        
+        SensorReading[] readings = new SensorReading[BLOCK_SIZE];
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            readings[i] = new SensorReading(TIMESTAMP + i * 1000L, temperature[i], soilMoisture[i], 65.0,
+                                            rainfall[i], 12.0, 8500.0, LOCATIONS[i % LOCATIONS.length]);
+        }
+        return readings;
+    }
+}
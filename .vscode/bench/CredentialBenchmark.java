@@ -0,0 +1,40 @@
+package agritech.bench;
+
+import agritech.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Logins per second with a full password hash check versus a cached verification
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CredentialBenchmark {
+    
+    private PasswordHasher hasher;
+    private CredentialCache cache;
+    private String storedHash;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        hasher = new PasswordHasher();
+        cache = new CredentialCache(256, 15, TimeUnit.MINUTES);
+        storedHash = hasher.hash("password");
+        cache.remember("user", storedHash, "password");
+    }
+    
+    @Benchmark
+    public boolean verifyHash() {
+        return hasher.verify("password", storedHash);
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public boolean verifyCached() {
+        return cache.matches("user", storedHash, "password");
+    }
+}
\ No newline at end of file
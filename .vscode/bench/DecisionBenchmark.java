@@ -0,0 +1,77 @@
+package agritech.bench;
+
+import agritech.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of SensorSimulator decisions, one reading at a time and as a columnar block
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DecisionBenchmark {
+    
+    @Param({"rain", "drought", "mixed"})
+    public String distribution;
+    
+    private final SensorSimulator simulator = new SensorSimulator();
+    private SensorReading[] readings;
+    private double[] soilMoisture;
+    private double[] temperature;
+    private double[] rainfall;
+    private byte[] ruleCodes;
+    private double[] irrigationAmounts;
+    private int next;
+    
+    @Setup
+    public void setup() {
+        readings = BenchmarkData.readings(distribution);
+        soilMoisture = new double[BenchmarkData.BLOCK_SIZE];
+        temperature = new double[BenchmarkData.BLOCK_SIZE];
+        rainfall = new double[BenchmarkData.BLOCK_SIZE];
+        BenchmarkData.fill(distribution, soilMoisture, temperature, rainfall);
+        ruleCodes = new byte[BenchmarkData.BLOCK_SIZE];
+        irrigationAmounts = new double[BenchmarkData.BLOCK_SIZE];
+    }
+    
+    // One reading per operation, the way SensorSimulationPage calls it
+    @Benchmark
+    public IrrigationDecision singleDecision() {
+        SensorReading reading = readings[next];
+        next = (next + 1) & (BenchmarkData.BLOCK_SIZE - 1);
+        return simulator.makeIrrigationDecision(reading);
+    }
+    
+    // Reads the decision label and amount only, as a headless controller would
+    @Benchmark
+    public void singleDecisionWithoutReason(Blackhole blackhole) {
+        SensorReading reading = readings[next];
+        next = (next + 1) & (BenchmarkData.BLOCK_SIZE - 1);
+        IrrigationDecision decision = simulator.makeIrrigationDecision(reading);
+        blackhole.consume(decision.getDecision());
+        blackhole.consume(decision.getIrrigationAmount());
+    }
+    
+    // Decision plus the rendered reason, as the simulation page displays it
+    @Benchmark
+    public String singleDecisionWithReason() {
+        SensorReading reading = readings[next];
+        next = (next + 1) & (BenchmarkData.BLOCK_SIZE - 1);
+        return simulator.makeIrrigationDecision(reading).getReason();
+    }
+    
+    // The whole block per invocation; scores are reported per reading
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BLOCK_SIZE)
+    public void batchDecisions(Blackhole blackhole) {
+        simulator.makeIrrigationDecisions(soilMoisture, temperature, rainfall,
+                                          BenchmarkData.BLOCK_SIZE, ruleCodes, irrigationAmounts);
+        blackhole.consume(ruleCodes);
+        blackhole.consume(irrigationAmounts);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package agritech.bench;
+
+import agritech.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Cost of reducing a week of minute-level data to a chart's worth of points
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DownsamplerBenchmark {
+    
+    @Param({"1440", "10080"})
+    public int size;
+    
+    @Param({"150"})
+    public int points;
+    
+    private double[] x;
+    private double[] y;
+    private int[] selected;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        x = new double[size];
+        y = new double[size];
+        double moisture = 50;
+        for (int i = 0; i < size; i++) {
+            x[i] = BenchmarkData.TIMESTAMP + i * 60_000L;
+            moisture = Math.max(0, Math.min(100, moisture + random.nextGaussian()));
+            y[i] = moisture;
+        }
+        selected = new int[points];
+    }
+    
+    @Benchmark
+    public int largestTriangleThreeBuckets() {
+        return Downsampler.largestTriangleThreeBuckets(x, y, size, points, selected);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package agritech.bench;
+
+import agritech.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Appending to and scanning the in-memory sensor history
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class HistoryStoreBenchmark {
+    
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final long DAY_START = BenchmarkData.TIMESTAMP - BenchmarkData.TIMESTAMP % DAY_MILLIS;
+    
+    private static final int DAY_READINGS = 86_400;
+    
+    private SensorReading[] day;
+    private SensorHistoryStore store;
+    private double sum;
+    
+    // A fresh store per invocation, so appends never grow memory across iterations
+    @State(Scope.Thread)
+    public static class EmptyStore {
+        SensorHistoryStore store;
+        
+        @Setup(Level.Invocation)
+        public void open() {
+            store = SensorHistoryStore.inMemory();
+        }
+        
+        @TearDown(Level.Invocation)
+        public void close() {
+            store.close();
+        }
+    }
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        // One full day at one reading per second for location 0
+        day = new SensorReading[DAY_READINGS];
+        for (int second = 0; second < DAY_READINGS; second++) {
+            day[second] = new SensorReading(DAY_START + second * 1000L, 20.0, 40.0 + second % 30, 60.0,
+                    0.0, 10.0, 5000.0, 0);
+        }
+        store = SensorHistoryStore.inMemory();
+        for (SensorReading reading : day) {
+            store.append(reading);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.close();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(DAY_READINGS)
+    public void appendDay(EmptyStore empty) {
+        for (SensorReading reading : day) {
+            empty.store.append(reading);
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(DAY_READINGS)
+    public double scanDayOfOneMetric() {
+        sum = 0;
+        store.scanMetric(0, SensorMetric.SOIL_MOISTURE, DAY_START, DAY_START + DAY_MILLIS, (timestamp, value) -> sum += value);
+        return sum;
+    }
+    
+    @Benchmark
+    public long countHour() {
+        return store.countReadings(0, DAY_START + 12 * 3_600_000L, DAY_START + 13 * 3_600_000L);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package agritech.bench;
+
+import agritech.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// End-to-end ingestion: parse a probe line, queue it and wait for its decision.
+// Scores are per reading; the headless controller needs at least 0.1 ops/us.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IngestPipelineBenchmark {
+    
+    private static final int LINES = 4096;
+    
+    @Param({"1", "4"})
+    public int workers;
+    
+    private final SensorReadingParser parser = new SensorReadingParser();
+    private SensorIngestPipeline pipeline;
+    private String[] lines;
+    
+    @Setup
+    public void setup() {
+        SensorReading[] readings = BenchmarkData.readings("mixed");
+        lines = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            SensorReading reading = readings[i % readings.length];
+            lines[i] = String.format("%d,Field %d,%.1f,%.1f,65.0,%.1f,12.0,8500",
+                    reading.getTimestamp(), i % 200, reading.getTemperature(), reading.getSoilMoisture(), reading.getRainfall());
+        }
+        pipeline = new SensorIngestPipeline(new SensorSimulator(), workers, 8192);
+        pipeline.start();
+    }
+    
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        pipeline.close();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parseAndDecide() throws InterruptedException {
+        for (String line : lines) {
+            pipeline.submit(parser.parse(line));
+        }
+        long submitted = pipeline.getSubmittedCount();
+        while (pipeline.getProcessedCount() < submitted) {
+            Thread.onSpinWait();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package agritech.bench;
+
+import agritech.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Time to plan a site's irrigation demands under a shared flow capacity
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PlannerBenchmark {
+    
+    @Param({"100", "500", "2000"})
+    public int zones;
+    
+    private final FlowCapacityPlanner planner = new FlowCapacityPlanner(400);
+    private List<FlowCapacityPlanner.Demand> demands;
+    
+    @Setup
+    public void setup() {
+        // Dry weather, so most zones ask for water, with valves of 10-100 L/min
+        SensorSimulator simulator = new SensorSimulator();
+        SensorReading[] readings = BenchmarkData.readings("drought");
+        Random random = new Random(42);
+        demands = new ArrayList<>(zones);
+        for (int i = 0; i < zones; i++) {
+            IrrigationDecision decision = simulator.makeIrrigationDecision(readings[i % readings.length]);
+            FlowCapacityPlanner.Demand demand = FlowCapacityPlanner.Demand.fromDecision(
+                    "Zone " + i, decision, 10 + random.nextInt(91), 60, TimeUnit.MINUTES);
+            if (demand != null) {
+                demands.add(demand);
+            }
+        }
+    }
+    
+    @Benchmark
+    public FlowCapacityPlanner.Plan plan() {
+        return planner.plan(demands);
+    }
+}
\ No newline at end of file
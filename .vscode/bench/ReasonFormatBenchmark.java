@@ -0,0 +1,29 @@
+package agritech.bench;
+
+import agritech.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// String.format cost of the reason text, per rule
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReasonFormatBenchmark {
+    
+    @Param({"RECENT_RAINFALL", "CRITICAL_MOISTURE_HIGH_TEMPERATURE", "ADEQUATE_MOISTURE"})
+    public IrrigationRule rule;
+    
+    private double soilMoisture = 27.5;
+    private double temperature = 31.2;
+    private double rainfall = 7.4;
+    
+    @Benchmark
+    public String formatReason() {
+        return rule.formatReason(soilMoisture, temperature, rainfall);
+    }
+}
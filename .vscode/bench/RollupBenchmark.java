@@ -0,0 +1,46 @@
+package agritech.bench;
+
+import agritech.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Updating the rollup buckets and reading a chart's worth of them
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RollupBenchmark {
+    
+    private SensorRollups rollups;
+    private SensorReading[] readings;
+    private int next;
+    private double sum;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        rollups = new SensorRollups();
+        readings = BenchmarkData.readings("mixed");
+        // A week of readings every ten seconds so every hourly bucket is filled
+        for (long time = BenchmarkData.TIMESTAMP - 7 * 86_400_000L; time < BenchmarkData.TIMESTAMP; time += 10_000) {
+            rollups.record(new SensorReading(time, 20.0, 45.0, 60.0, 0.0, 10.0, 5000.0, 0));
+        }
+    }
+    
+    @Benchmark
+    public void record() {
+        rollups.record(readings[next]);
+        next = (next + 1) % readings.length;
+    }
+    
+    @Benchmark
+    public double readWeek() {
+        sum = 0;
+        rollups.read(0, SensorRollups.Resolution.HOUR, SensorMetric.SOIL_MOISTURE, BenchmarkData.TIMESTAMP, 168,
+                (bucketStart, min, max, average, last) -> sum += average);
+        return sum;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package agritech.bench;
+
+import agritech.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Allocation and construction cost of the reading model
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SensorReadingBenchmark {
+    
+    private double temperature = 24.0;
+    private double soilMoisture = 42.0;
+    private String location = "Field A - North";
+    
+    @Benchmark
+    public SensorReading construct() {
+        return new SensorReading(BenchmarkData.TIMESTAMP, temperature, soilMoisture, 65.0, 0.0, 12.0, 8500.0, location);
+    }
+}
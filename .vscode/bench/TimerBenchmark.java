@@ -0,0 +1,96 @@
+package agritech.bench;
+
+import agritech.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Valve timers on the TimingWheel versus a ScheduledThreadPoolExecutor, with
+// many other timers outstanding as on a large site. The executor removes
+// cancelled tasks so its queue stays the same size as the wheel's.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimerBenchmark {
+    
+    private static final int EXPIRE_BATCH = 1000;
+    private static final Runnable NOTHING = () -> { };
+    
+    @Param({"1000", "100000"})
+    public int outstanding;
+    
+    private TimingWheel wheel;
+    private ScheduledThreadPoolExecutor executor;
+    private long[] delays;
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        wheel = new TimingWheel(1, TimeUnit.MILLISECONDS, "benchmark-wheel");
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        
+        // Staggered valve deadlines over the next day
+        Random random = new Random(42);
+        delays = new long[4096];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = TimeUnit.MINUTES.toNanos(1) + (long) (random.nextDouble() * TimeUnit.HOURS.toNanos(24));
+        }
+        for (int i = 0; i < outstanding; i++) {
+            wheel.schedule(NOTHING, delays[i % delays.length], TimeUnit.NANOSECONDS);
+            executor.schedule(NOTHING, delays[i % delays.length], TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        wheel.close();
+        executor.shutdownNow();
+    }
+    
+    private long nextDelay() {
+        next = (next + 1) & (delays.length - 1);
+        return delays[next];
+    }
+    
+    // A valve opened and closed again before its timer fired
+    @Benchmark
+    public boolean wheelScheduleCancel() {
+        return wheel.schedule(NOTHING, nextDelay(), TimeUnit.NANOSECONDS).cancel();
+    }
+    
+    @Benchmark
+    public boolean executorScheduleCancel() {
+        ScheduledFuture<?> future = executor.schedule(NOTHING, nextDelay(), TimeUnit.NANOSECONDS);
+        return future.cancel(false);
+    }
+    
+    // Timers that come due together and run
+    @Benchmark
+    @OperationsPerInvocation(EXPIRE_BATCH)
+    public void wheelExpire() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(EXPIRE_BATCH);
+        for (int i = 0; i < EXPIRE_BATCH; i++) {
+            wheel.schedule(done::countDown, 0, TimeUnit.NANOSECONDS);
+        }
+        done.await();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(EXPIRE_BATCH)
+    public void executorExpire() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(EXPIRE_BATCH);
+        for (int i = 0; i < EXPIRE_BATCH; i++) {
+            executor.schedule(done::countDown, 0, TimeUnit.NANOSECONDS);
+        }
+        done.await();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+@echo off
+echo Running JMH benchmarks for AgriTech Smart Irrigation System
+echo ===========================================================
+
+set JMH_VERSION=1.37
+set MAVEN_REPO=https://repo1.maven.org/maven2
+
+REM Create lib\jmh directory if it doesn't exist
+if not exist lib\jmh mkdir lib\jmh
+
+call :download org/openjdk/jmh/jmh-core/%JMH_VERSION% jmh-core-%JMH_VERSION%.jar || exit /b 1
+call :download org/openjdk/jmh/jmh-generator-annprocess/%JMH_VERSION% jmh-generator-annprocess-%JMH_VERSION%.jar || exit /b 1
+call :download net/sf/jopt-simple/jopt-simple/5.0.4 jopt-simple-5.0.4.jar || exit /b 1
+call :download org/apache/commons/commons-math3/3.6.1 commons-math3-3.6.1.jar || exit /b 1
+
+REM Benchmarks only use the headless model classes, so JavaFX is not needed
+set CORE_SOURCES=SensorReading IrrigationDecision IrrigationRule DecisionType SensorSimulator SensorReadingParser SensorIngestPipeline TimeFormats LocationRegistry SensorMetric SensorHistoryStore SensorRollups Downsampler PasswordHasher CredentialCache TimingWheel FlowCapacityPlanner
+
+REM JMH does not accept benchmarks in the default package, so the benchmarks live
+REM in agritech.bench and compile against a copy of the classes under agritech
+if exist build\bench rmdir /s /q build\bench
+if exist build\bench-src rmdir /s /q build\bench-src
+mkdir build\bench
+mkdir build\bench-src\agritech
+if not exist bench-results mkdir bench-results
+for %%n in (%CORE_SOURCES%) do (
+    echo package agritech;> build\bench-src\agritech\%%n.java
+    type .vscode\%%n.java>> build\bench-src\agritech\%%n.java
+)
+javac -cp "lib\jmh\*" -d build\bench build\bench-src\agritech\*.java .vscode\bench\*.java || exit /b 1
+
+REM Any arguments are passed to JMH, e.g. a benchmark name filter or "-p distribution=mixed"
+for /f %%i in ('powershell -Command "Get-Date -Format yyyyMMdd-HHmmss"') do set STAMP=%%i
+set RESULT_FILE=bench-results\jmh-%STAMP%.json
+java -cp "build\bench;lib\jmh\*" org.openjdk.jmh.Main -prof gc -rf json -rff %RESULT_FILE% %*
+
+echo.
+echo Results written to %RESULT_FILE%
+exit /b 0
+
+:download
+if exist lib\jmh\%2 exit /b 0
+echo Downloading %2...
+powershell -Command "& {[Net.ServicePointManager]::SecurityProtocol = [Net.SecurityProtocolType]::Tls12; Invoke-WebRequest -Uri '%MAVEN_REPO%/%1/%2' -OutFile 'lib\jmh\%2'}"
+if not exist lib\jmh\%2 (
+    echo Failed to download %2.
+    exit /b 1
+)
+exit /b 0
@@ -0,0 +1,50 @@
+#!/bin/bash
+
+echo "Running JMH benchmarks for AgriTech Smart Irrigation System"
+echo "==========================================================="
+
+JMH_VERSION=1.37
+MAVEN_REPO=https://repo1.maven.org/maven2
+
+# Create lib/jmh directory if it doesn't exist
+mkdir -p lib/jmh
+
+download() {
+    if [ -f "lib/jmh/$2" ]; then
+        return
+    fi
+    echo "Downloading $2..."
+    if command -v curl &> /dev/null; then
+        curl -sL "$MAVEN_REPO/$1/$2" -o "lib/jmh/$2"
+    elif command -v wget &> /dev/null; then
+        wget -q "$MAVEN_REPO/$1/$2" -O "lib/jmh/$2"
+    else
+        echo "Error: Neither curl nor wget are available. Please install one of them."
+        exit 1
+    fi
+}
+
+download org/openjdk/jmh/jmh-core/$JMH_VERSION jmh-core-$JMH_VERSION.jar
+download org/openjdk/jmh/jmh-generator-annprocess/$JMH_VERSION jmh-generator-annprocess-$JMH_VERSION.jar
+download net/sf/jopt-simple/jopt-simple/5.0.4 jopt-simple-5.0.4.jar
+download org/apache/commons/commons-math3/3.6.1 commons-math3-3.6.1.jar
+
+# Benchmarks only use the headless model classes, so JavaFX is not needed
+CORE_SOURCES="SensorReading IrrigationDecision IrrigationRule DecisionType SensorSimulator SensorReadingParser SensorIngestPipeline TimeFormats LocationRegistry SensorMetric SensorHistoryStore SensorRollups Downsampler PasswordHasher CredentialCache TimingWheel FlowCapacityPlanner"
+
+# JMH does not accept benchmarks in the default package, so the benchmarks live
+# in agritech.bench and compile against a copy of the classes under agritech
+rm -rf build/bench build/bench-src
+mkdir -p build/bench build/bench-src/agritech bench-results
+for name in $CORE_SOURCES; do
+    { echo "package agritech;"; cat ".vscode/$name.java"; } > "build/bench-src/agritech/$name.java"
+done
+javac -cp "lib/jmh/*" -d build/bench build/bench-src/agritech/*.java .vscode/bench/*.java || exit 1
+
+# Any arguments are passed to JMH, e.g. a benchmark name filter or "-p distribution=mixed".
+# Results go to bench-results/ as JSON so runs from different builds can be compared.
+RESULT_FILE="bench-results/jmh-$(date +%Y%m%d-%H%M%S).json"
+java -cp "build/bench:lib/jmh/*" org.openjdk.jmh.Main -prof gc -rf json -rff "$RESULT_FILE" "$@"
+
+echo ""
+echo "Results written to $RESULT_FILE"